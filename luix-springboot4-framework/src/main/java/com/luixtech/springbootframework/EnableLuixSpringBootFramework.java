@@ -1,11 +1,15 @@
 package com.luixtech.springbootframework;
 
 import com.luixtech.springbootframework.aspect.AopLoggingAspect;
+import com.luixtech.springbootframework.aspect.BulkheadAspect;
 import com.luixtech.springbootframework.aspect.ElapsedTimeLoggingAspect;
 import com.luixtech.springbootframework.aspect.ExceptionTranslatorAdviceAspect;
+import com.luixtech.springbootframework.aspect.ThrottledAspect;
+import com.luixtech.springbootframework.component.BulkheadRegistry;
 import com.luixtech.springbootframework.component.HttpHeaderCreator;
 import com.luixtech.springbootframework.component.MessageCreator;
 import com.luixtech.springbootframework.component.PrintAppInfoApplicationRunner;
+import com.luixtech.springbootframework.component.SpiWarmUpApplicationRunner;
 import com.luixtech.springbootframework.component.SseNotifier;
 import com.luixtech.springbootframework.config.AsyncConfiguration;
 import com.luixtech.springbootframework.config.LocaleConfiguration;
@@ -22,8 +26,8 @@ import java.lang.annotation.*;
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 @Import({AopLoggingAspect.class, ElapsedTimeLoggingAspect.class, ExceptionTranslatorAdviceAspect.class,
-        HttpHeaderCreator.class, MessageCreator.class, PrintAppInfoApplicationRunner.class,
-        SseNotifier.class, AsyncConfiguration.class, LocaleConfiguration.class, LuixProperties.class,
+        ThrottledAspect.class, BulkheadAspect.class, BulkheadRegistry.class, HttpHeaderCreator.class, MessageCreator.class, PrintAppInfoApplicationRunner.class,
+        SpiWarmUpApplicationRunner.class, SseNotifier.class, AsyncConfiguration.class, LocaleConfiguration.class, LuixProperties.class,
         OpenApiEndpointConfiguration.class,
         SpringDocAutoConfiguration.class, AppInfoContributorConfiguration.class,
         LuixMetricsEndpointConfiguration.class})
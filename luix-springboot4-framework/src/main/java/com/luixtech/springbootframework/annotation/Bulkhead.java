@@ -0,0 +1,27 @@
+package com.luixtech.springbootframework.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Execute the annotated method, or all the methods of the annotated class, in the isolated compartment of
+ * the downstream dependency, so a slow dependency can NOT exhaust the threads of the others.
+ * <p>
+ * The compartment is configured by 'luix.bulkheads.{name}', and the call is rejected by
+ * {@link com.luixtech.springbootframework.exception.BulkheadFullException} if the compartment is saturated.
+ * <pre>
+ * &#64;Bulkhead("payment")
+ * public PaymentResult pay(PaymentRequest request) {...}
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Bulkhead {
+
+    /**
+     * Compartment name used in the metrics and 'luix.bulkheads'
+     */
+    String value();
+}
@@ -0,0 +1,50 @@
+package com.luixtech.springbootframework.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limit the execution rate of the annotated method, or all the methods of the annotated class.
+ * <p>
+ * The methods annotated on the class share the same limit.
+ * <pre>
+ * &#64;Throttled(rate = 100, key = "#tenant")
+ * &#64;GetMapping("/api/orders")
+ * public List&lt;Order&gt; find() {...}
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface Throttled {
+
+    /**
+     * Throttling name used in the metrics and 'luix.throttling.rates', default is 'ClassName.methodName'
+     * or the class name if annotated on the class
+     */
+    String value() default "";
+
+    /**
+     * Maximum executions per second, it can be overridden by 'luix.throttling.rates.{name}'
+     */
+    long rate() default -1;
+
+    /**
+     * SpEL expression of the key which has a separate limit, e.g. '#tenant' or '#userId',
+     * the method parameters and the variable 'tenant' are available.
+     * The limit is shared by all the calls if empty.
+     */
+    String key() default "";
+
+    /**
+     * Maximum executions allowed at once after being idle, -1 to use 'luix.throttling.max-burst-permits'
+     */
+    int maxBurstPermits() default -1;
+
+    /**
+     * Maximum time in milliseconds to wait for a permit before being rejected, 0 to reject immediately,
+     * -1 to use 'luix.throttling.max-wait-millis'
+     */
+    long maxWaitMillis() default -1;
+}
@@ -2,8 +2,10 @@ package com.luixtech.springbootframework.aspect;
 
 import com.alibaba.fastjson2.JSON;
 
+import com.luixtech.springbootframework.component.RequestContextResolver;
 import com.luixtech.springbootframework.config.LuixProperties;
 import com.luixtech.springbootframework.utils.TraceIdUtils;
+import com.luixtech.utilities.thread.RequestContext;
 import jakarta.servlet.ServletRequest;
 import jakarta.servlet.ServletResponse;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,6 +20,7 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.context.request.RequestContextHolder;
@@ -30,6 +33,9 @@ import java.util.Map;
 /**
  * Aspect for logging execution arguments and result of the method.
  * <p>
+ * The trace id, and the tenant and the data masking switch resolved by {@link RequestContextResolver} are bound to
+ * the {@link RequestContext} for the controller call.
+ * <p>
  * http://www.imooc.com/article/297283
  */
 @Slf4j
@@ -38,8 +44,9 @@ import java.util.Map;
 @Configuration
 @AllArgsConstructor
 public class AopLoggingAspect {
-    private static final String UNKNOWN_ARG_VAL = "UNKNOWN";
-    private final LuixProperties luixProperties;
+    private static final String                                 UNKNOWN_ARG_VAL = "UNKNOWN";
+    private final        LuixProperties                         luixProperties;
+    private final        ObjectProvider<RequestContextResolver> requestContextResolver;
 
     /**
      * Advice that logs methods throwing exceptions
@@ -77,7 +84,7 @@ public class AopLoggingAspect {
             TraceIdUtils.setTraceId(traceId);
         }
         beforeRun(joinPoint);
-        Object result = joinPoint.proceed();
+        Object result = createRequestContext(request, traceId).call(joinPoint::proceed);
         // Set traceId to http response header
         if (response != null) {
             response.setHeader("X-Trace-Id", traceId);
@@ -87,6 +94,28 @@ public class AopLoggingAspect {
         return result;
     }
 
+    /**
+     * Create the request context bound for the controller call, which is propagated to the async tasks
+     */
+    private RequestContext createRequestContext(HttpServletRequest request, String traceId) {
+        RequestContext context = RequestContext.current();
+        if (context == null) {
+            context = RequestContext.of(null, null, null);
+        }
+        if (request != null) {
+            RequestContextResolver resolver = requestContextResolver.getIfAvailable(() -> RequestContextResolver.DEFAULT);
+            String tenant = resolver.resolveTenant(request);
+            if (tenant != null) {
+                context = context.withTenant(tenant);
+            }
+            Boolean maskEnabled = resolver.resolveMaskEnabled(request);
+            if (maskEnabled != null) {
+                context = context.withMaskEnabled(maskEnabled);
+            }
+        }
+        return context.withTraceId(traceId);
+    }
+
     public void beforeRun(ProceedingJoinPoint joinPoint) {
         if (enablePrint(joinPoint)) {
             return;
@@ -0,0 +1,57 @@
+package com.luixtech.springbootframework.aspect;
+
+import com.luixtech.springbootframework.annotation.Bulkhead;
+import com.luixtech.springbootframework.component.BulkheadRegistry;
+import lombok.AllArgsConstructor;
+import org.apache.commons.lang3.Validate;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aspect for executing the methods annotated with {@link Bulkhead} in the compartments of {@link BulkheadRegistry}
+ */
+@Aspect
+@Configuration
+@AllArgsConstructor
+public class BulkheadAspect {
+    private final BulkheadRegistry    bulkheadRegistry;
+    private final Map<Method, String> methodBulkheads = new ConcurrentHashMap<>();
+
+    @Around("@annotation(com.luixtech.springbootframework.annotation.Bulkhead) || @within(com.luixtech.springbootframework.annotation.Bulkhead)")
+    public Object bulkheadAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = joinPoint.getTarget() != null ? AopUtils.getTargetClass(joinPoint.getTarget()) : method.getDeclaringClass();
+        String name = methodBulkheads.computeIfAbsent(method, m -> getBulkheadName(m, targetClass));
+
+        return bulkheadRegistry.execute(name, () -> {
+            try {
+                // Proceed to execute method
+                return joinPoint.proceed();
+            } catch (Exception | Error e) {
+                throw e;
+            } catch (Throwable t) {
+                throw new UndeclaredThrowableException(t);
+            }
+        });
+    }
+
+    private String getBulkheadName(Method method, Class<?> targetClass) {
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        Bulkhead annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, Bulkhead.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, Bulkhead.class);
+        }
+        Validate.validState(annotation != null, "No @Bulkhead found on " + specificMethod);
+        return annotation.value();
+    }
+}
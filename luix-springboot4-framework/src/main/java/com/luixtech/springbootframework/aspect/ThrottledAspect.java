@@ -0,0 +1,236 @@
+package com.luixtech.springbootframework.aspect;
+
+import com.luixtech.springbootframework.annotation.Throttled;
+import com.luixtech.springbootframework.config.LuixProperties;
+import com.luixtech.springbootframework.exception.ThrottledException;
+import com.luixtech.utilities.thread.KeyedRateLimiter;
+import com.luixtech.utilities.thread.RateLimiter;
+import com.luixtech.utilities.thread.TenantThreadContextHolder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Aspect for limiting the execution rate of the methods annotated with {@link Throttled}
+ * <p>
+ * The calls exceeding the rate wait for a bounded time, and are rejected by {@link ThrottledException} after that.
+ * The metrics 'luix.throttling.permitted', 'luix.throttling.rejected' and 'luix.throttling.wait' tagged by
+ * the throttling name are published to Micrometer.
+ */
+@Aspect
+@Configuration
+@AllArgsConstructor
+public class ThrottledAspect {
+    public static final  String                        METRIC_PREFIX             = "luix.throttling";
+    private static final SpelExpressionParser          EXPRESSION_PARSER         = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer       PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+    private final        LuixProperties                luixProperties;
+    private final        ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final        Map<Method, MethodRule>       methodRules               = new ConcurrentHashMap<>();
+    /**
+     * Rules by throttling name, the methods with the same name share the same limit
+     */
+    private final        Map<String, ThrottlingRule>   namedRules                = new ConcurrentHashMap<>();
+
+    @Around("@annotation(com.luixtech.springbootframework.annotation.Throttled) || @within(com.luixtech.springbootframework.annotation.Throttled)")
+    public Object throttleAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!luixProperties.getThrottling().isEnabled()) {
+            return joinPoint.proceed();
+        }
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        Class<?> targetClass = joinPoint.getTarget() != null ? AopUtils.getTargetClass(joinPoint.getTarget()) : method.getDeclaringClass();
+        MethodRule methodRule = methodRules.computeIfAbsent(method, m -> createRule(m, targetClass));
+        ThrottlingRule rule = methodRule.rule;
+
+        long start = System.nanoTime();
+        if (!rule.acquire(methodRule.getKey(joinPoint.getArgs()))) {
+            rule.rejected();
+            throw new ThrottledException("Too many requests to " + rule.name);
+        }
+        rule.permitted(System.nanoTime() - start);
+        // Proceed to execute method
+        return joinPoint.proceed();
+    }
+
+    private MethodRule createRule(Method method, Class<?> targetClass) {
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        Throttled annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, Throttled.class);
+        String defaultName;
+        if (annotation != null) {
+            defaultName = targetClass.getSimpleName() + "." + specificMethod.getName();
+        } else {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, Throttled.class);
+            defaultName = targetClass.getSimpleName();
+        }
+        Validate.validState(annotation != null, "No @Throttled found on " + specificMethod);
+        Throttled throttled = annotation;
+        String name = StringUtils.defaultIfEmpty(throttled.value(), defaultName);
+        ThrottlingRule rule = namedRules.computeIfAbsent(name, n -> new ThrottlingRule(n, throttled,
+                luixProperties.getThrottling(), meterRegistryProvider.getIfAvailable()));
+        return new MethodRule(rule, rule.keyExpression != null ? getParameterIndexes(specificMethod) : Map.of());
+    }
+
+    /**
+     * Resolve the indexes of the parameters by the names, and the aliases 'a0', 'p0', etc.
+     */
+    private static Map<String, Integer> getParameterIndexes(Method method) {
+        String[] parameterNames = PARAMETER_NAME_DISCOVERER.getParameterNames(method);
+        Map<String, Integer> parameterIndexes = new HashMap<>();
+        for (int i = 0; i < method.getParameterCount(); i++) {
+            parameterIndexes.put("a" + i, i);
+            parameterIndexes.put("p" + i, i);
+            if (parameterNames != null) {
+                parameterIndexes.put(parameterNames[i], i);
+            }
+        }
+        return Map.copyOf(parameterIndexes);
+    }
+
+    /**
+     * Throttling rule of a method with the parameter indexes, which are resolved once instead of for each call
+     */
+    private record MethodRule(ThrottlingRule rule, Map<String, Integer> parameterIndexes) {
+        private Object getKey(Object[] args) {
+            if (rule.keyExpression == null) {
+                return null;
+            }
+            // Null keys share the same limit
+            return String.valueOf(rule.keyExpression.getValue(new KeyEvaluationContext(parameterIndexes, args)));
+        }
+    }
+
+    /**
+     * Evaluation context looking up the variables from the arguments on demand, the variable 'tenant' takes
+     * precedence over the parameter of the same name
+     */
+    private static class KeyEvaluationContext extends StandardEvaluationContext {
+        private final Map<String, Integer> parameterIndexes;
+        private final Object[]             args;
+
+        private KeyEvaluationContext(Map<String, Integer> parameterIndexes, Object[] args) {
+            this.parameterIndexes = parameterIndexes;
+            this.args = args;
+        }
+
+        @Override
+        public Object lookupVariable(String name) {
+            if ("tenant".equals(name)) {
+                return TenantThreadContextHolder.getTenant();
+            }
+            Integer index = parameterIndexes.get(name);
+            return index != null ? args[index] : super.lookupVariable(name);
+        }
+    }
+
+    private static class ThrottlingRule {
+        private final String                   name;
+        private final Expression               keyExpression;
+        private final RateLimiter              rateLimiter;
+        private final KeyedRateLimiter<Object> keyedRateLimiter;
+        private final long                     intervalNanos;
+        private final long                     maxWaitNanos;
+        private final Counter                  permittedCounter;
+        private final Counter                  rejectedCounter;
+        private final Timer                    waitTimer;
+
+        private ThrottlingRule(String name, Throttled annotation, LuixProperties.Throttling properties,
+                               MeterRegistry meterRegistry) {
+            long rate = properties.getRates().getOrDefault(name, annotation.rate());
+            Validate.isTrue(rate > 0 || rate == -1, "Please specify the rate of @Throttled or 'luix.throttling.rates."
+                    + name + "'");
+            int maxBurstPermits = annotation.maxBurstPermits() > 0 ? annotation.maxBurstPermits() : properties.getMaxBurstPermits();
+            long maxWaitMillis = annotation.maxWaitMillis() >= 0 ? annotation.maxWaitMillis() : properties.getMaxWaitMillis();
+
+            this.name = name;
+            this.intervalNanos = rate == -1 ? 0 : TimeUnit.SECONDS.toNanos(1) / rate;
+            this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+            if (StringUtils.isEmpty(annotation.key())) {
+                this.keyExpression = null;
+                this.rateLimiter = new RateLimiter(rate, maxBurstPermits);
+                this.keyedRateLimiter = null;
+            } else {
+                this.keyExpression = EXPRESSION_PARSER.parseExpression(annotation.key());
+                this.rateLimiter = null;
+                this.keyedRateLimiter = new KeyedRateLimiter<>(rate, maxBurstPermits, properties.getMaxKeys(), null);
+            }
+            if (meterRegistry != null) {
+                this.permittedCounter = Counter.builder(METRIC_PREFIX + ".permitted").tag("name", name)
+                        .description("Executions permitted by the throttling").register(meterRegistry);
+                this.rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected").tag("name", name)
+                        .description("Executions rejected by the throttling").register(meterRegistry);
+                this.waitTimer = Timer.builder(METRIC_PREFIX + ".wait").tag("name", name)
+                        .description("Time waiting for the permits").register(meterRegistry);
+            } else {
+                this.permittedCounter = null;
+                this.rejectedCounter = null;
+                this.waitTimer = null;
+            }
+        }
+
+        private boolean acquire(Object key) {
+            try {
+                if (rateLimiter != null) {
+                    return rateLimiter.tryAcquire(1, maxWaitNanos, TimeUnit.NANOSECONDS);
+                }
+                if (keyedRateLimiter.tryAcquire(key)) {
+                    return true;
+                }
+                // The keyed rate limiter can NOT reserve the permits, so retry at the emission interval
+                long deadline = System.nanoTime() + maxWaitNanos;
+                long remaining = maxWaitNanos;
+                while (remaining > 0) {
+                    LockSupport.parkNanos(Math.min(remaining, intervalNanos));
+                    if (Thread.interrupted()) {
+                        throw new InterruptedException();
+                    }
+                    if (keyedRateLimiter.tryAcquire(key)) {
+                        return true;
+                    }
+                    remaining = deadline - System.nanoTime();
+                }
+                return false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void permitted(long waitNanos) {
+            if (permittedCounter != null) {
+                permittedCounter.increment();
+                if (maxWaitNanos > 0) {
+                    waitTimer.record(waitNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        private void rejected() {
+            if (rejectedCounter != null) {
+                rejectedCounter.increment();
+            }
+        }
+    }
+}
@@ -1,19 +1,22 @@
 package com.luixtech.springbootframework.async;
 
-import com.luixtech.springbootframework.utils.TraceIdUtils;
+import com.luixtech.springbootframework.utils.MdcUtils;
+import com.luixtech.utilities.thread.RequestContext;
 import lombok.extern.slf4j.Slf4j;
-import org.slf4j.MDC;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.lang.NonNull;
 
-import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
 
 /**
  * Async task executor with exception handling.
+ * The MDC and the {@link RequestContext} of the submitting thread are propagated to the task.
+ * <p>
+ * The MDC is propagated by {@link MdcUtils#wrap(Callable)}, so it is NOT copied on submission, and the worker
+ * thread restoring the same MDC for the tasks of a request copies it once.
  */
 @Slf4j
 public class ExceptionHandlingAsyncTaskExecutor implements AsyncTaskExecutor, InitializingBean, DisposableBean {
@@ -26,40 +29,38 @@ public class ExceptionHandlingAsyncTaskExecutor implements AsyncTaskExecutor, In
 
     @Override
     public void execute(Runnable task) {
-        executor.execute(createWrappedRunnable(task, MDC.getCopyOfContextMap()));
+        executor.execute(createWrappedRunnable(task));
     }
 
     @Deprecated
     @Override
     public void execute(@NonNull Runnable task, long startTimeout) {
-        executor.execute(createWrappedRunnable(task, MDC.getCopyOfContextMap()), startTimeout);
+        executor.execute(createWrappedRunnable(task), startTimeout);
     }
 
-    private <T> Callable<T> createCallable(final Callable<T> task, final Map<String, String> context) {
-        return () -> {
+    private <T> Callable<T> createCallable(final Callable<T> task) {
+        RequestContext requestContext = RequestContext.current();
+        Callable<T> callable = MdcUtils.wrap(() -> {
             try {
-                TraceIdUtils.setParentMdcToChild(context);
                 return task.call();
             } catch (Exception e) {
                 handle(e);
                 throw e;
-            } finally {
-                TraceIdUtils.remove();
             }
-        };
+        });
+        return requestContext != null ? requestContext.wrap(callable) : callable;
     }
 
-    private Runnable createWrappedRunnable(final Runnable task, final Map<String, String> context) {
-        return () -> {
+    private Runnable createWrappedRunnable(final Runnable task) {
+        RequestContext requestContext = RequestContext.current();
+        Runnable runnable = MdcUtils.wrap(() -> {
             try {
-                TraceIdUtils.setParentMdcToChild(context);
                 task.run();
             } catch (Exception e) {
                 handle(e);
-            } finally {
-                TraceIdUtils.remove();
             }
-        };
+        });
+        return requestContext != null ? requestContext.wrap(runnable) : runnable;
     }
 
     protected void handle(Exception e) {
@@ -68,12 +69,12 @@ public class ExceptionHandlingAsyncTaskExecutor implements AsyncTaskExecutor, In
 
     @Override
     public Future<?> submit(Runnable task) {
-        return executor.submit(createWrappedRunnable(task, MDC.getCopyOfContextMap()));
+        return executor.submit(createWrappedRunnable(task));
     }
 
     @Override
     public <T> Future<T> submit(Callable<T> task) {
-        return executor.submit(createCallable(task, MDC.getCopyOfContextMap()));
+        return executor.submit(createCallable(task));
     }
 
     @Override
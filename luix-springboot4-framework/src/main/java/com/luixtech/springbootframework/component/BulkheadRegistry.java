@@ -0,0 +1,219 @@
+package com.luixtech.springbootframework.component;
+
+import com.luixtech.springbootframework.config.LuixProperties;
+import com.luixtech.springbootframework.config.metrics.NetworkThreadPoolExecutorMetrics;
+import com.luixtech.springbootframework.exception.BulkheadFullException;
+import com.luixtech.springbootframework.utils.MdcUtils;
+import com.luixtech.utilities.exception.InvocationTimeoutException;
+import com.luixtech.utilities.thread.RequestContext;
+import com.luixtech.utilities.thread.pool.NetworkThreadPoolExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.Validate;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Registry of the isolated compartments by the name of the downstream dependency, which are configured by
+ * 'luix.bulkheads.{name}'. A compartment is either a dedicated {@link NetworkThreadPoolExecutor}, or a semaphore
+ * limiting the concurrent calls in the caller threads.
+ * <p>
+ * The saturated compartment rejects the calls by {@link BulkheadFullException}. The thread pool compartments publish
+ * the metrics of {@link NetworkThreadPoolExecutorMetrics} tagged by the compartment name, and all the compartments
+ * publish 'luix.bulkhead.rejected'.
+ * <pre>
+ * PaymentResult result = bulkheadRegistry.execute("payment", () -> paymentClient.pay(request));
+ * </pre>
+ */
+@Slf4j
+@Component
+public class BulkheadRegistry implements InitializingBean, DisposableBean {
+    public static final String                        METRIC_PREFIX = "luix.bulkhead";
+    private final       LuixProperties                luixProperties;
+    private final       ObjectProvider<MeterRegistry> meterRegistryProvider;
+    private final       Map<String, Compartment>      compartments  = new ConcurrentHashMap<>();
+
+    public BulkheadRegistry(LuixProperties luixProperties, ObjectProvider<MeterRegistry> meterRegistryProvider) {
+        this.luixProperties = luixProperties;
+        this.meterRegistryProvider = meterRegistryProvider;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        // Create the configured compartments eagerly to publish the metrics
+        luixProperties.getBulkheads().keySet().forEach(this::getCompartment);
+    }
+
+    /**
+     * Execute the task in the compartment
+     *
+     * @param name compartment name
+     * @param task task
+     * @param <T>  result type
+     * @return result of the task
+     * @throws BulkheadFullException      if the compartment is saturated
+     * @throws InvocationTimeoutException if the result is NOT returned before the timeout or the deadline of the request
+     * @throws Exception                  exception thrown by the task
+     */
+    public <T> T execute(String name, Callable<T> task) throws Exception {
+        Validate.notNull(task, "Task must not be null!");
+        return getCompartment(name).execute(task);
+    }
+
+    private Compartment getCompartment(String name) {
+        Validate.notEmpty(name, "Bulkhead name must not be empty!");
+        return compartments.computeIfAbsent(name, this::createCompartment);
+    }
+
+    private Compartment createCompartment(String name) {
+        LuixProperties.Bulkhead properties = luixProperties.getBulkheads().get(name);
+        if (properties == null) {
+            log.warn("No 'luix.bulkheads.{}' configured, using the default bulkhead", name);
+            properties = new LuixProperties.Bulkhead();
+        }
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+        Compartment compartment = properties.getType() == LuixProperties.Bulkhead.Type.SEMAPHORE
+                ? new SemaphoreCompartment(name, properties, meterRegistry)
+                : new ThreadPoolCompartment(name, properties, meterRegistry);
+        log.info("Created {} bulkhead [{}]", properties.getType(), name);
+        return compartment;
+    }
+
+    @Override
+    public void destroy() {
+        compartments.values().forEach(Compartment::shutdown);
+    }
+
+    private abstract static class Compartment {
+        protected final String  name;
+        private final   Counter rejectedCounter;
+
+        protected Compartment(String name, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.rejectedCounter = meterRegistry != null
+                    ? Counter.builder(METRIC_PREFIX + ".rejected").tag("name", name)
+                    .description("Calls rejected by the saturated bulkhead").register(meterRegistry)
+                    : null;
+        }
+
+        abstract <T> T execute(Callable<T> task) throws Exception;
+
+        void shutdown() {
+        }
+
+        protected BulkheadFullException rejected() {
+            if (rejectedCounter != null) {
+                rejectedCounter.increment();
+            }
+            return new BulkheadFullException("Bulkhead " + name + " is full");
+        }
+    }
+
+    private static class ThreadPoolCompartment extends Compartment {
+        private final NetworkThreadPoolExecutor executor;
+        private final long                      timeoutNanos;
+
+        private ThreadPoolCompartment(String name, LuixProperties.Bulkhead properties, MeterRegistry meterRegistry) {
+            super(name, meterRegistry);
+            this.executor = new NetworkThreadPoolExecutor(properties.getCorePoolSize(), properties.getMaxPoolSize(),
+                    properties.getQueueCapacity(), Thread.ofPlatform().name("bulkhead-" + name + "-", 0).factory());
+            this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(properties.getTimeoutMillis());
+            if (meterRegistry != null) {
+                new NetworkThreadPoolExecutorMetrics(executor, name).bindTo(meterRegistry);
+            }
+        }
+
+        @Override
+        <T> T execute(Callable<T> task) throws Exception {
+            long start = System.nanoTime();
+            Future<T> future;
+            try {
+                future = executor.submit(propagate(task));
+            } catch (RejectedExecutionException e) {
+                throw rejected();
+            }
+            long deadlineNanos = getDeadlineNanos(start);
+            try {
+                return deadlineNanos == Long.MAX_VALUE ? future.get()
+                        : future.get(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                long timeoutInMs = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - start);
+                throw new InvocationTimeoutException(timeoutInMs, "Bulkhead " + name + " call timed out after " + timeoutInMs + "ms");
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                throw e;
+            }
+        }
+
+        /**
+         * Get the earlier one of the configured timeout and the deadline of the request
+         */
+        private long getDeadlineNanos(long start) {
+            long deadlineNanos = timeoutNanos > 0 ? start + timeoutNanos : Long.MAX_VALUE;
+            RequestContext context = RequestContext.current();
+            if (context != null && context.getDeadlineNanos() != null && context.getDeadlineNanos() - deadlineNanos < 0) {
+                deadlineNanos = context.getDeadlineNanos();
+            }
+            return deadlineNanos;
+        }
+
+        /**
+         * Propagate the MDC and the {@link RequestContext} of the caller thread to the task
+         */
+        private static <T> Callable<T> propagate(Callable<T> task) {
+            RequestContext requestContext = RequestContext.current();
+            Callable<T> callable = MdcUtils.wrap(task);
+            return requestContext != null ? requestContext.wrap(callable) : callable;
+        }
+
+        @Override
+        void shutdown() {
+            executor.shutdown();
+        }
+    }
+
+    private static class SemaphoreCompartment extends Compartment {
+        private final Semaphore semaphore;
+        private final long      maxWaitNanos;
+
+        private SemaphoreCompartment(String name, LuixProperties.Bulkhead properties, MeterRegistry meterRegistry) {
+            super(name, meterRegistry);
+            Validate.isTrue(properties.getMaxConcurrentCalls() > 0, "maxConcurrentCalls must be greater than 0");
+            this.semaphore = new Semaphore(properties.getMaxConcurrentCalls());
+            this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(properties.getMaxWaitMillis());
+            if (meterRegistry != null) {
+                int maxConcurrentCalls = properties.getMaxConcurrentCalls();
+                Gauge.builder(METRIC_PREFIX + ".active", semaphore, s -> maxConcurrentCalls - s.availablePermits())
+                        .tag("name", name).description("Concurrent calls in the bulkhead").register(meterRegistry);
+                Gauge.builder(METRIC_PREFIX + ".max", semaphore, s -> maxConcurrentCalls)
+                        .tag("name", name).description("Maximum concurrent calls of the bulkhead").register(meterRegistry);
+            }
+        }
+
+        @Override
+        <T> T execute(Callable<T> task) throws Exception {
+            boolean acquired = maxWaitNanos > 0 ? semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS) : semaphore.tryAcquire();
+            if (!acquired) {
+                throw rejected();
+            }
+            try {
+                return task.call();
+            } finally {
+                semaphore.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.luixtech.springbootframework.component;
+
+import com.luixtech.springbootframework.aspect.AopLoggingAspect;
+import com.luixtech.utilities.thread.RequestContext;
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Resolver of the tenant and the data masking switch of a web request, which are bound to the {@link RequestContext}
+ * by {@link AopLoggingAspect} together with the trace id. Register a bean of it to override the defaults.
+ */
+public interface RequestContextResolver {
+    /**
+     * Header of the tenant, which is expected to be set by a trusted gateway
+     */
+    String                 HEADER_TENANT = "X-Tenant-Id";
+    RequestContextResolver DEFAULT       = new RequestContextResolver() {
+    };
+
+    /**
+     * Resolve the tenant of the request
+     *
+     * @param request http request
+     * @return tenant, or null if not specified
+     */
+    default String resolveTenant(HttpServletRequest request) {
+        String tenant = request.getHeader(HEADER_TENANT);
+        return tenant == null || tenant.isEmpty() ? null : tenant;
+    }
+
+    /**
+     * Resolve whether to enable data masking for the request
+     *
+     * @param request http request
+     * @return whether to enable data masking, or null to use the default which is enabled
+     */
+    default Boolean resolveMaskEnabled(HttpServletRequest request) {
+        return null;
+    }
+}
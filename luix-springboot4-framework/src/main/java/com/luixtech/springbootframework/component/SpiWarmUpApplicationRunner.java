@@ -0,0 +1,39 @@
+package com.luixtech.springbootframework.component;
+
+import com.luixtech.springbootframework.config.LuixProperties;
+import com.luixtech.utilities.serviceloader.ServiceLoader;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.collections4.CollectionUtils;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Warm up the configured SPI service loaders before the application is ready to serve traffic,
+ * which moves the cost of loading classes and creating singletons from the first request to startup.
+ */
+@Component
+@AllArgsConstructor
+@Slf4j
+public class SpiWarmUpApplicationRunner implements ApplicationRunner {
+    private final LuixProperties luixProperties;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        LuixProperties.SpiWarmUp spiWarmUp = luixProperties.getSpiWarmUp();
+        if (!spiWarmUp.isEnabled() || CollectionUtils.isEmpty(spiWarmUp.getServiceInterfaces())) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Map<String, Duration> elapsedTimes;
+        try (ForkJoinPool pool = new ForkJoinPool(spiWarmUp.getParallelism())) {
+            elapsedTimes = ServiceLoader.warmUp(pool, spiWarmUp.getServiceInterfaces().toArray(new Class<?>[0]));
+        }
+        log.info("Warmed up {} SPI service implementations in {}ms", elapsedTimes.size(), System.currentTimeMillis() - start);
+    }
+}
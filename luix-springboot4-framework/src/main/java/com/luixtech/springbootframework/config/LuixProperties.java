@@ -6,7 +6,10 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Properties specific to Application.
@@ -20,17 +23,23 @@ import java.util.List;
 @Validated
 @Getter
 public class LuixProperties {
-    public static final String             SPRING_PROFILE_DEV  = "dev";
-    public static final String             SPRING_PROFILE_TEST = "test";
-    public static final String             SPRING_PROFILE_DEMO = "demo";
-    public static final String             SPRING_PROFILE_PROD = "prod";
-    private final       Http               http                = new Http();
-    private final       ApiDocs            apiDocs             = new ApiDocs();
-    private final       Metrics            metrics             = new Metrics();
-    private final       AopLogging         aopLogging          = new AopLogging();
-    private final       ElapsedTimeLogging elapsedTimeLogging  = new ElapsedTimeLogging();
-    private final       Ribbon             ribbon              = new Ribbon();
-    private final       AppInfo            appInfo             = new AppInfo();
+    public static final String                SPRING_PROFILE_DEV  = "dev";
+    public static final String                SPRING_PROFILE_TEST = "test";
+    public static final String                SPRING_PROFILE_DEMO = "demo";
+    public static final String                SPRING_PROFILE_PROD = "prod";
+    private final       Http                  http                = new Http();
+    private final       ApiDocs               apiDocs             = new ApiDocs();
+    private final       Metrics               metrics             = new Metrics();
+    private final       AopLogging            aopLogging          = new AopLogging();
+    private final       ElapsedTimeLogging    elapsedTimeLogging  = new ElapsedTimeLogging();
+    private final       Ribbon                ribbon              = new Ribbon();
+    private final       AppInfo               appInfo             = new AppInfo();
+    private final       SpiWarmUp             spiWarmUp           = new SpiWarmUp();
+    private final       Throttling            throttling          = new Throttling();
+    /**
+     * Isolated compartments by the name of the downstream dependency, see {@link com.luixtech.springbootframework.annotation.Bulkhead}
+     */
+    private final       Map<String, Bulkhead> bulkheads           = new HashMap<>();
 
     @Data
     public static class Http {
@@ -122,4 +131,85 @@ public class LuixProperties {
     public static class AppInfo {
         private boolean printEnabled = true;
     }
+
+    @Data
+    public static class SpiWarmUp {
+        private boolean        enabled;
+        /**
+         * Service interfaces annotated with @Spi to warm up
+         */
+        private List<Class<?>> serviceInterfaces = new ArrayList<>();
+        /**
+         * Parallelism of the warm-up fork-join pool
+         */
+        private int            parallelism       = Runtime.getRuntime().availableProcessors();
+    }
+
+    @Data
+    public static class Bulkhead {
+        /**
+         * Isolation type of the compartment
+         */
+        private Type    type               = Type.THREAD_POOL;
+        /**
+         * Core thread count of the thread pool compartment
+         */
+        private int     corePoolSize       = 10;
+        /**
+         * Maximum thread count of the thread pool compartment
+         */
+        private int     maxPoolSize        = 20;
+        /**
+         * Maximum queued call count of the thread pool compartment
+         */
+        private int     queueCapacity      = 100;
+        /**
+         * Maximum time in milliseconds to wait for the result of the thread pool compartment, 0 means no limit
+         * except the deadline of the request
+         */
+        private long    timeoutMillis;
+        /**
+         * Maximum concurrent call count of the semaphore compartment
+         */
+        private int     maxConcurrentCalls = 25;
+        /**
+         * Maximum time in milliseconds to wait for a permit of the semaphore compartment, 0 to reject immediately
+         */
+        private long    maxWaitMillis;
+
+        public enum Type {
+            /**
+             * Execute the calls in a dedicated {@link com.luixtech.utilities.thread.pool.NetworkThreadPoolExecutor}
+             */
+            THREAD_POOL,
+            /**
+             * Execute the calls in the caller threads with limited concurrency
+             */
+            SEMAPHORE
+        }
+    }
+
+    @Data
+    public static class Throttling {
+        /**
+         * Whether to apply @Throttled
+         */
+        private boolean           enabled         = true;
+        /**
+         * Default maximum executions allowed at once after being idle
+         */
+        private int               maxBurstPermits = 1;
+        /**
+         * Default maximum time in milliseconds to wait for a permit, 0 to reject immediately
+         */
+        private long              maxWaitMillis;
+        /**
+         * Maximum number of keys kept in memory by each keyed throttling
+         */
+        private int               maxKeys         = 10000;
+        /**
+         * Maximum executions per second by throttling name, which override the rates of the annotations
+         */
+        private Map<String, Long> rates           = new HashMap<>();
+    }
 }
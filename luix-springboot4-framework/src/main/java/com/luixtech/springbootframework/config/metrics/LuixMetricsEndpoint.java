@@ -1,5 +1,7 @@
 package com.luixtech.springbootframework.config.metrics;
 
+import com.luixtech.springbootframework.aspect.ThrottledAspect;
+import com.luixtech.springbootframework.component.BulkheadRegistry;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.*;
 import io.micrometer.core.instrument.distribution.ValueAtPercentile;
@@ -46,10 +48,121 @@ public class LuixMetricsEndpoint {
         results.put("garbageCollector", garbageCollectorMetrics());
         // Process stats
         results.put("processMetrics", processMetrics());
+        // Throttling stats
+        results.put("throttling", throttlingMetrics());
+        // Thread pool stats
+        results.put("threadPools", threadPoolMetrics());
+        // Bulkhead stats
+        results.put("bulkheads", bulkheadMetrics());
 
         return results;
     }
 
+    private Map<String, Map<String, Number>> throttlingMetrics() {
+        Map<String, Map<String, Number>> resultsThrottling = new HashMap<>();
+
+        Collection<Counter> counters = Search.in(meterRegistry).name(s -> s.startsWith(ThrottledAspect.METRIC_PREFIX)).counters();
+        counters.forEach(counter -> {
+            String key = counter.getId().getName().substring(ThrottledAspect.METRIC_PREFIX.length() + 1);
+            String name = counter.getId().getTag("name");
+            if (name != null) {
+                resultsThrottling.putIfAbsent(name, new HashMap<>());
+                resultsThrottling.get(name).put(key, counter.count());
+            } else {
+                log.warn(MISSING_NAME_TAG_MESSAGE, counter.getId().getName());
+            }
+        });
+
+        Collection<Timer> timers = Search.in(meterRegistry).name(s -> s.startsWith(ThrottledAspect.METRIC_PREFIX)).timers();
+        timers.forEach(timer -> {
+            String name = timer.getId().getTag("name");
+            if (name != null) {
+                resultsThrottling.putIfAbsent(name, new HashMap<>());
+                resultsThrottling.get(name).put("waitCount", timer.count());
+                resultsThrottling.get(name).put("waitMax", timer.max(TimeUnit.MILLISECONDS));
+                resultsThrottling.get(name).put("waitMean", timer.mean(TimeUnit.MILLISECONDS));
+            } else {
+                log.warn(MISSING_NAME_TAG_MESSAGE, timer.getId().getName());
+            }
+        });
+        return resultsThrottling;
+    }
+
+    private Map<String, Map<String, Number>> threadPoolMetrics() {
+        Map<String, Map<String, Number>> resultsThreadPool = new HashMap<>();
+        String prefix = NetworkThreadPoolExecutorMetrics.METRIC_PREFIX + ".";
+
+        Collection<Gauge> gauges = Search.in(meterRegistry).name(s -> s.startsWith(prefix)).gauges();
+        gauges.forEach(gauge -> {
+            String name = gauge.getId().getTag("name");
+            if (name != null) {
+                resultsThreadPool.putIfAbsent(name, new HashMap<>());
+                resultsThreadPool.get(name).put(gauge.getId().getName().substring(prefix.length()), gauge.value());
+            } else {
+                log.warn(MISSING_NAME_TAG_MESSAGE, gauge.getId().getName());
+            }
+        });
+
+        Collection<FunctionCounter> counters = Search.in(meterRegistry).name(s -> s.startsWith(prefix)).functionCounters();
+        counters.forEach(counter -> {
+            String name = counter.getId().getTag("name");
+            if (name != null) {
+                resultsThreadPool.putIfAbsent(name, new HashMap<>());
+                resultsThreadPool.get(name).put(counter.getId().getName().substring(prefix.length()), counter.count());
+            } else {
+                log.warn(MISSING_NAME_TAG_MESSAGE, counter.getId().getName());
+            }
+        });
+
+        Collection<Timer> timers = Search.in(meterRegistry).name(s -> s.startsWith(prefix)).timers();
+        timers.forEach(timer -> {
+            String name = timer.getId().getTag("name");
+            if (name != null) {
+                String key = timer.getId().getName().substring(prefix.length());
+                resultsThreadPool.putIfAbsent(name, new HashMap<>());
+                resultsThreadPool.get(name).put(key + ".count", timer.count());
+                resultsThreadPool.get(name).put(key + ".max", timer.max(TimeUnit.MILLISECONDS));
+                resultsThreadPool.get(name).put(key + ".mean", timer.mean(TimeUnit.MILLISECONDS));
+
+                ValueAtPercentile[] percentiles = timer.takeSnapshot().percentileValues();
+                for (ValueAtPercentile percentile : percentiles) {
+                    resultsThreadPool.get(name).put(key + "." + percentile.percentile(), percentile.value(TimeUnit.MILLISECONDS));
+                }
+            } else {
+                log.warn(MISSING_NAME_TAG_MESSAGE, timer.getId().getName());
+            }
+        });
+        return resultsThreadPool;
+    }
+
+    private Map<String, Map<String, Number>> bulkheadMetrics() {
+        Map<String, Map<String, Number>> resultsBulkhead = new HashMap<>();
+        String prefix = BulkheadRegistry.METRIC_PREFIX + ".";
+
+        Collection<Gauge> gauges = Search.in(meterRegistry).name(s -> s.startsWith(prefix)).gauges();
+        gauges.forEach(gauge -> {
+            String name = gauge.getId().getTag("name");
+            if (name != null) {
+                resultsBulkhead.putIfAbsent(name, new HashMap<>());
+                resultsBulkhead.get(name).put(gauge.getId().getName().substring(prefix.length()), gauge.value());
+            } else {
+                log.warn(MISSING_NAME_TAG_MESSAGE, gauge.getId().getName());
+            }
+        });
+
+        Collection<Counter> counters = Search.in(meterRegistry).name(s -> s.startsWith(prefix)).counters();
+        counters.forEach(counter -> {
+            String name = counter.getId().getTag("name");
+            if (name != null) {
+                resultsBulkhead.putIfAbsent(name, new HashMap<>());
+                resultsBulkhead.get(name).put(counter.getId().getName().substring(prefix.length()), counter.count());
+            } else {
+                log.warn(MISSING_NAME_TAG_MESSAGE, counter.getId().getName());
+            }
+        });
+        return resultsBulkhead;
+    }
+
     private Map<String, Number> processMetrics() {
         Map<String, Number> resultsProcess = new HashMap<>();
 
@@ -0,0 +1,67 @@
+package com.luixtech.springbootframework.config.metrics;
+
+import com.luixtech.utilities.thread.pool.NetworkThreadPoolExecutor;
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer metrics of {@link NetworkThreadPoolExecutor} tagged by the pool name, which are shown in the
+ * 'threadPools' section of {@link LuixMetricsEndpoint}.
+ * <pre>
+ * &#64;Bean
+ * public MeterBinder networkThreadPoolMetrics(NetworkThreadPoolExecutor executor) {
+ *     return new NetworkThreadPoolExecutorMetrics(executor, "remote-service");
+ * }
+ * </pre>
+ */
+public class NetworkThreadPoolExecutorMetrics implements MeterBinder, NetworkThreadPoolExecutor.TaskTimeRecorder {
+    public static final String                    METRIC_PREFIX = "luix.thread.pool";
+    private final       NetworkThreadPoolExecutor executor;
+    private final       Tags                      tags;
+    private volatile    Timer                     queueWaitTimer;
+    private volatile    Timer                     executionTimer;
+
+    public NetworkThreadPoolExecutorMetrics(NetworkThreadPoolExecutor executor, String poolName) {
+        Validate.notNull(executor, "Executor must not be null!");
+        Validate.notEmpty(poolName, "Pool name must not be empty!");
+        this.executor = executor;
+        this.tags = Tags.of("name", poolName);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(METRIC_PREFIX + ".active", executor, NetworkThreadPoolExecutor::getActiveCount)
+                .tags(tags).description("Number of the threads executing tasks").register(registry);
+        Gauge.builder(METRIC_PREFIX + ".size", executor, NetworkThreadPoolExecutor::getPoolSize)
+                .tags(tags).description("Number of the threads in the pool").register(registry);
+        Gauge.builder(METRIC_PREFIX + ".max", executor, NetworkThreadPoolExecutor::getMaximumPoolSize)
+                .tags(tags).description("Maximum number of the threads in the pool").register(registry);
+        Gauge.builder(METRIC_PREFIX + ".queued", executor, e -> e.getQueue().size())
+                .tags(tags).description("Number of the tasks in the queue").register(registry);
+        Gauge.builder(METRIC_PREFIX + ".submitted", executor, NetworkThreadPoolExecutor::getSubmittedTasksCount)
+                .tags(tags).description("Number of the tasks queued or executing").register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".completed", executor, NetworkThreadPoolExecutor::getCompletedTaskCount)
+                .tags(tags).description("Number of the completed tasks").register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".rejected", executor, NetworkThreadPoolExecutor::getRejectedTasksCount)
+                .tags(tags).description("Number of the rejected tasks").register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".forced", executor, NetworkThreadPoolExecutor::getForcedTasksCount)
+                .tags(tags).description("Number of the tasks forced into the queue").register(registry);
+        FunctionCounter.builder(METRIC_PREFIX + ".shed", executor, NetworkThreadPoolExecutor::getShedTasksCount)
+                .tags(tags).description("Number of the tasks dropped after the deadline").register(registry);
+        // The histogram is published to the monitoring system, and the percentiles are shown by LuixMetricsEndpoint
+        queueWaitTimer = Timer.builder(METRIC_PREFIX + ".queue.wait").tags(tags).publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.99).description("Time of the tasks waiting in the queue").register(registry);
+        executionTimer = Timer.builder(METRIC_PREFIX + ".execution").tags(tags).publishPercentileHistogram()
+                .publishPercentiles(0.5, 0.99).description("Execution time of the tasks").register(registry);
+        executor.setTaskTimeRecorder(this);
+    }
+
+    @Override
+    public void record(long queueWaitNanos, long executionNanos) {
+        queueWaitTimer.record(queueWaitNanos, TimeUnit.NANOSECONDS);
+        executionTimer.record(executionNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,18 @@
+package com.luixtech.springbootframework.exception;
+
+import com.luixtech.utilities.exception.ThirdPartyServiceException;
+import lombok.EqualsAndHashCode;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the call is rejected by a saturated {@link com.luixtech.springbootframework.annotation.Bulkhead},
+ * it is responded with HTTP 503 unless handled by an exception handler.
+ */
+@EqualsAndHashCode(callSuper = true)
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BulkheadFullException extends ThirdPartyServiceException {
+    public BulkheadFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.luixtech.springbootframework.exception;
+
+import com.luixtech.utilities.exception.TooManyRequestsException;
+import lombok.EqualsAndHashCode;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when the execution is rejected by {@link com.luixtech.springbootframework.annotation.Throttled},
+ * it is responded with HTTP 429 unless handled by an exception handler.
+ */
+@EqualsAndHashCode(callSuper = true)
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class ThrottledException extends TooManyRequestsException {
+    public ThrottledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,167 @@
+package com.luixtech.springbootframework.utils;
+
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Utility class for propagating MDC to other threads without copying it for each task.
+ * <p>
+ * With logback, the snapshot is the read-only MDC map cached by logback until the MDC changes, so all the tasks
+ * submitted from the same context share the same immutable snapshot. A thread whose MDC already equals the snapshot,
+ * e.g. restored by the previous task of the same request, skips restoring it, so the MDC is copied once per thread
+ * for the tasks of a request instead of once per task. The MDC is compared with the read-write map of logback,
+ * which is read without being copied.
+ * <p>
+ * The MDC is cleared lazily by {@link #wrap(Runnable)}: the MDC still equal to the snapshot after the task is kept
+ * until the next task replaces or clears it, and the MDC changed by the task is cleared. With other logging systems,
+ * or if the map of logback is inaccessible, the MDC is copied once per task and cleared after it.
+ */
+@Slf4j
+public class MdcUtils {
+    private static final boolean LOGBACK_PRESENT = ClassUtils.isPresent(
+            "ch.qos.logback.classic.util.LogbackMDCAdapter", MdcUtils.class.getClassLoader());
+
+    /**
+     * Capture the immutable snapshot of the MDC of the current thread
+     *
+     * @return MDC snapshot, null or empty if no MDC
+     */
+    public static Map<String, String> capture() {
+        if (LOGBACK_PRESENT && LogbackMdc.isActive()) {
+            return LogbackMdc.getPropertyMap();
+        }
+        Map<String, String> copy = MDC.getCopyOfContextMap();
+        return copy != null ? Collections.unmodifiableMap(copy) : null;
+    }
+
+    /**
+     * Replace the MDC of the current thread with the snapshot, which is skipped if the MDC already equals it
+     *
+     * @param snapshot MDC snapshot captured by {@link #capture()}
+     */
+    public static void restore(Map<String, String> snapshot) {
+        if (isRestored(snapshot)) {
+            return;
+        }
+        if (snapshot == null || snapshot.isEmpty()) {
+            MDC.clear();
+        } else {
+            MDC.setContextMap(snapshot);
+        }
+    }
+
+    /**
+     * Clear the MDC of the current thread after a task, unless it still equals the restored snapshot which is kept
+     * for the next task. It is a no-op if the MDC is already empty.
+     *
+     * @param snapshot MDC snapshot restored before the task
+     */
+    public static void reset(Map<String, String> snapshot) {
+        if (!isRestored(snapshot)) {
+            MDC.clear();
+        }
+    }
+
+    /**
+     * Wrap the task to run with the MDC of the current thread
+     *
+     * @param task task
+     * @return wrapped task
+     */
+    public static Runnable wrap(Runnable task) {
+        Map<String, String> snapshot = capture();
+        return () -> {
+            restore(snapshot);
+            try {
+                task.run();
+            } finally {
+                reset(snapshot);
+            }
+        };
+    }
+
+    /**
+     * Wrap the task to run with the MDC of the current thread
+     *
+     * @param task task
+     * @param <T>  result type
+     * @return wrapped task
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Map<String, String> snapshot = capture();
+        return () -> {
+            restore(snapshot);
+            try {
+                return task.call();
+            } finally {
+                reset(snapshot);
+            }
+        };
+    }
+
+    private static boolean isRestored(Map<String, String> snapshot) {
+        if (LOGBACK_PRESENT && LogbackMdc.isActive()) {
+            return LogbackMdc.contentEquals(snapshot);
+        }
+        return false;
+    }
+
+    /**
+     * Isolates the references of logback, which is NOT loaded unless present
+     */
+    private static final class LogbackMdc {
+        /**
+         * Field of the read-write MDC maps of logback, null if inaccessible
+         */
+        private static final Field READ_WRITE_MAP_FIELD = findReadWriteMapField();
+
+        private static Field findReadWriteMapField() {
+            try {
+                Field field = LogbackMDCAdapter.class.getDeclaredField("readWriteThreadLocalMap");
+                field.setAccessible(true);
+                return field;
+            } catch (Exception e) {
+                log.warn("Failed to access the MDC map of logback, the MDC is copied for each task", e);
+                return null;
+            }
+        }
+
+        private static boolean isActive() {
+            return MDC.getMDCAdapter() instanceof LogbackMDCAdapter;
+        }
+
+        private static Map<String, String> getPropertyMap() {
+            return ((LogbackMDCAdapter) MDC.getMDCAdapter()).getPropertyMap();
+        }
+
+        /**
+         * Compare the MDC of the current thread with the snapshot without copying it
+         *
+         * @param snapshot MDC snapshot
+         * @return true if they are equal, false if NOT equal or inaccessible
+         */
+        @SuppressWarnings("unchecked")
+        private static boolean contentEquals(Map<String, String> snapshot) {
+            if (READ_WRITE_MAP_FIELD == null) {
+                return false;
+            }
+            Map<String, String> current;
+            try {
+                current = ((ThreadLocal<Map<String, String>>) READ_WRITE_MAP_FIELD.get(MDC.getMDCAdapter())).get();
+            } catch (IllegalAccessException e) {
+                return false;
+            }
+            if (current == null || current.isEmpty()) {
+                return snapshot == null || snapshot.isEmpty();
+            }
+            return current == snapshot || current.equals(snapshot);
+        }
+    }
+}
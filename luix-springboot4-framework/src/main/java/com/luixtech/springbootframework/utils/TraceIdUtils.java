@@ -1,6 +1,7 @@
 package com.luixtech.springbootframework.utils;
 
 import com.github.f4b6a3.tsid.TsidCreator;
+import com.luixtech.utilities.thread.RequestContext;
 import org.slf4j.MDC;
 
 import java.util.Map;
@@ -24,16 +25,24 @@ public class TraceIdUtils {
     }
 
     /**
-     * Gets the current trace ID from MDC
+     * Gets the current trace ID from MDC, which is written to the logs, or from the bound {@link RequestContext}
+     * if not in MDC
      *
      * @return current trace ID, or null if not set
      */
     public static String getTraceId() {
-        return MDC.get(TRACE_ID_KEY);
+        String traceId = MDC.get(TRACE_ID_KEY);
+        if (traceId != null) {
+            return traceId;
+        }
+        RequestContext context = RequestContext.current();
+        return context != null ? context.getTraceId() : null;
     }
 
     /**
-     * Sets a trace ID in MDC
+     * Sets a trace ID in MDC.
+     * The trace ID of the bound {@link RequestContext} is immutable within its scope, so the async tasks submitted
+     * afterward still get the bound one, rebind it by {@link RequestContext#withTraceId(String)} to propagate the new one.
      *
      * @param traceId the trace ID to set
      */
@@ -0,0 +1,107 @@
+package com.luixtech.springbootframework.aspect;
+
+import com.luixtech.springbootframework.component.RequestContextResolver;
+import com.luixtech.springbootframework.config.LuixProperties;
+import com.luixtech.springbootframework.utils.TraceIdUtils;
+import com.luixtech.utilities.masking.DataMaskingThreadContextHolder;
+import com.luixtech.utilities.thread.RequestContext;
+import com.luixtech.utilities.thread.TenantThreadContextHolder;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AopLoggingAspectTests {
+
+    @AfterEach
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        MDC.clear();
+    }
+
+    @Test
+    public void testBindRequestContext() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(
+                createRequest(Map.of("X-Trace-Id", "T1", RequestContextResolver.HEADER_TENANT, "tenant1"))));
+        RequestContext context = createController(null).getContext();
+        assertThat(context.getTraceId()).isEqualTo("T1");
+        assertThat(context.getTenant()).isEqualTo("tenant1");
+        // Masking is enabled by default
+        assertThat(context.getMaskEnabled()).isNull();
+        assertThat(DataMaskingThreadContextHolder.getMaskEnabled()).isTrue();
+        assertThat(RequestContext.current()).isNull();
+    }
+
+    @Test
+    public void testCustomResolver() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(createRequest(Map.of())));
+        RequestContextResolver resolver = new RequestContextResolver() {
+            @Override
+            public String resolveTenant(HttpServletRequest request) {
+                return "tenant2";
+            }
+
+            @Override
+            public Boolean resolveMaskEnabled(HttpServletRequest request) {
+                return false;
+            }
+        };
+        OrderController controller = createController(resolver);
+        RequestContext context = controller.getContext();
+        assertThat(context.getTenant()).isEqualTo("tenant2");
+        assertThat(context.getMaskEnabled()).isFalse();
+        // The trace id is generated
+        assertThat(context.getTraceId()).startsWith("T");
+        assertThat(controller.getTenantAndMask()).isEqualTo("tenant2:false");
+    }
+
+    @Test
+    public void testSetTraceIdInScope() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(createRequest(Map.of("X-Trace-Id", "T1"))));
+        // The trace id changed within the scope is consistent with the logs
+        assertThat(createController(null).changeTraceId("T2")).isEqualTo("T2");
+    }
+
+    private static OrderController createController(RequestContextResolver resolver) {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        if (resolver != null) {
+            beanFactory.registerSingleton("requestContextResolver", resolver);
+        }
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new OrderController());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new AopLoggingAspect(new LuixProperties(), beanFactory.getBeanProvider(RequestContextResolver.class)));
+        return proxyFactory.getProxy();
+    }
+
+    private static HttpServletRequest createRequest(Map<String, String> headers) {
+        return (HttpServletRequest) Proxy.newProxyInstance(AopLoggingAspectTests.class.getClassLoader(),
+                new Class<?>[]{HttpServletRequest.class}, (proxy, method, args) ->
+                        "getHeader".equals(method.getName()) ? headers.get((String) args[0]) : null);
+    }
+
+    @RestController
+    public static class OrderController {
+        public RequestContext getContext() {
+            return RequestContext.current();
+        }
+
+        public String getTenantAndMask() {
+            return TenantThreadContextHolder.getTenant() + ":" + DataMaskingThreadContextHolder.getMaskEnabled();
+        }
+
+        public String changeTraceId(String traceId) {
+            TraceIdUtils.setTraceId(traceId);
+            return TraceIdUtils.getTraceId();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.luixtech.springbootframework.aspect;
+
+import com.luixtech.springbootframework.annotation.Bulkhead;
+import com.luixtech.springbootframework.component.BulkheadRegistry;
+import com.luixtech.springbootframework.config.LuixProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BulkheadAspectTests {
+    private BulkheadRegistry bulkheadRegistry;
+    private InventoryClient  inventoryClient;
+
+    @BeforeEach
+    public void setUp() {
+        bulkheadRegistry = new BulkheadRegistry(new LuixProperties(),
+                new DefaultListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new InventoryClient());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new BulkheadAspect(bulkheadRegistry));
+        inventoryClient = proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        bulkheadRegistry.destroy();
+    }
+
+    @Test
+    public void testClassLevelBulkhead() {
+        assertThat(inventoryClient.getStock()).startsWith("bulkhead-inventory-");
+    }
+
+    @Test
+    public void testMethodLevelBulkhead() {
+        // The annotation of the method takes precedence over the one of the class
+        assertThat(inventoryClient.reserve()).startsWith("bulkhead-reservation-");
+    }
+
+    @Test
+    public void testCheckedException() {
+        assertThatThrownBy(() -> inventoryClient.export()).isInstanceOf(IOException.class);
+    }
+
+    @Bulkhead("inventory")
+    public static class InventoryClient {
+        public String getStock() {
+            return Thread.currentThread().getName();
+        }
+
+        @Bulkhead("reservation")
+        public String reserve() {
+            return Thread.currentThread().getName();
+        }
+
+        public void export() throws IOException {
+            throw new IOException("Failed to export");
+        }
+    }
+}
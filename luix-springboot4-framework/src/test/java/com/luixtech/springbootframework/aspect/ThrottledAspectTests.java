@@ -0,0 +1,161 @@
+package com.luixtech.springbootframework.aspect;
+
+import com.luixtech.springbootframework.annotation.Throttled;
+import com.luixtech.springbootframework.config.LuixProperties;
+import com.luixtech.springbootframework.exception.ThrottledException;
+import com.luixtech.utilities.exception.TooManyRequestsException;
+import com.luixtech.utilities.thread.RequestContext;
+import com.luixtech.utilities.thread.TenantThreadContextHolder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.luixtech.springbootframework.aspect.ThrottledAspect.METRIC_PREFIX;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ThrottledAspectTests {
+    private LuixProperties luixProperties;
+    private MeterRegistry  meterRegistry;
+    private OrderService   orderService;
+
+    @BeforeEach
+    public void setUp() {
+        luixProperties = new LuixProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        orderService = createService();
+    }
+
+    @Test
+    public void testReject() {
+        assertThat(orderService.find()).isEqualTo("orders");
+        assertThatThrownBy(() -> orderService.find()).isInstanceOf(ThrottledException.class)
+                .hasMessage("Too many requests to OrderService.find");
+        assertThat(meterRegistry.get(METRIC_PREFIX + ".permitted").tag("name", "OrderService.find").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get(METRIC_PREFIX + ".rejected").tag("name", "OrderService.find").counter().count()).isEqualTo(1);
+        // No wait time is recorded if the calls are rejected immediately
+        assertThat(meterRegistry.find(METRIC_PREFIX + ".wait").tag("name", "OrderService.find").timer().count()).isZero();
+    }
+
+    @Test
+    public void testWait() {
+        assertThat(orderService.create()).isEqualTo("created");
+        long start = System.nanoTime();
+        // Wait for the next permit in 50ms instead of being rejected
+        assertThat(orderService.create()).isEqualTo("created");
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isBetween(20L, 500L);
+
+        Timer waitTimer = meterRegistry.get(METRIC_PREFIX + ".wait").tag("name", "create").timer();
+        assertThat(waitTimer.count()).isEqualTo(2);
+        assertThat(waitTimer.max(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(20);
+        assertThat(meterRegistry.find(METRIC_PREFIX + ".rejected").tag("name", "create").counter().count()).isZero();
+    }
+
+    @Test
+    public void testParameterKey() {
+        assertThat(orderService.findByUser("user1")).isEqualTo("user1");
+        // Each user has a separate limit
+        assertThat(orderService.findByUser("user2")).isEqualTo("user2");
+        assertThatThrownBy(() -> orderService.findByUser("user1")).isInstanceOf(ThrottledException.class);
+        assertThat(meterRegistry.get(METRIC_PREFIX + ".permitted").tag("name", "user").counter().count()).isEqualTo(2);
+        assertThat(meterRegistry.get(METRIC_PREFIX + ".rejected").tag("name", "user").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void testParameterAliasKey() {
+        assertThat(orderService.findByUserAlias("user1")).isEqualTo("user1");
+        assertThat(orderService.findByUserAlias("user2")).isEqualTo("user2");
+        assertThatThrownBy(() -> orderService.findByUserAlias("user2")).isInstanceOf(ThrottledException.class);
+    }
+
+    @Test
+    public void testTenantKey() throws Exception {
+        assertThat(RequestContext.of("tenant1", null, null).call(orderService::findByTenant)).isEqualTo("tenant1");
+        assertThat(RequestContext.of("tenant2", null, null).call(orderService::findByTenant)).isEqualTo("tenant2");
+        assertThatThrownBy(() -> RequestContext.of("tenant1", null, null).call(orderService::findByTenant))
+                .isInstanceOf(ThrottledException.class);
+        // The calls without tenant share the same limit
+        assertThat(orderService.findByTenant()).isEmpty();
+        assertThatThrownBy(() -> orderService.findByTenant()).isInstanceOf(ThrottledException.class);
+    }
+
+    @Test
+    public void testConfiguredRate() {
+        luixProperties.getThrottling().getRates().put("OrderService.find", 1000L);
+        orderService = createService();
+        assertThat(orderService.find()).isEqualTo("orders");
+        // The permit is replenished in 1ms instead of 1s
+        sleep(5);
+        assertThat(orderService.find()).isEqualTo("orders");
+    }
+
+    @Test
+    public void testDisabled() {
+        luixProperties.getThrottling().setEnabled(false);
+        for (int i = 0; i < 3; i++) {
+            assertThat(orderService.find()).isEqualTo("orders");
+        }
+        assertThat(meterRegistry.find(METRIC_PREFIX + ".permitted").counter()).isNull();
+    }
+
+    @Test
+    public void testTooManyRequestsStatus() {
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(ThrottledException.class, ResponseStatus.class);
+        assertThat(responseStatus).isNotNull();
+        assertThat(responseStatus.code()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(new ThrottledException("Too many requests")).isInstanceOf(TooManyRequestsException.class);
+    }
+
+    private OrderService createService() {
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new OrderService());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new ThrottledAspect(luixProperties, beanFactory.getBeanProvider(MeterRegistry.class)));
+        return proxyFactory.getProxy();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static class OrderService {
+        @Throttled(rate = 1, maxWaitMillis = 0)
+        public String find() {
+            return "orders";
+        }
+
+        @Throttled(value = "create", rate = 20, maxWaitMillis = 1000)
+        public String create() {
+            return "created";
+        }
+
+        @Throttled(value = "user", rate = 1, key = "#userId", maxWaitMillis = 0)
+        public String findByUser(String userId) {
+            return userId;
+        }
+
+        @Throttled(value = "userAlias", rate = 1, key = "#p0", maxWaitMillis = 0)
+        public String findByUserAlias(String userId) {
+            return userId;
+        }
+
+        @Throttled(rate = 1, key = "#tenant", maxWaitMillis = 0)
+        public String findByTenant() {
+            return TenantThreadContextHolder.getTenant();
+        }
+    }
+}
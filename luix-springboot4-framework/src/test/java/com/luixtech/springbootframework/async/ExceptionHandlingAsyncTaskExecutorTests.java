@@ -0,0 +1,93 @@
+package com.luixtech.springbootframework.async;
+
+import com.sun.management.ThreadMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+public class ExceptionHandlingAsyncTaskExecutorTests {
+    private final ExecutorService                    worker   = Executors.newSingleThreadExecutor();
+    private final ExceptionHandlingAsyncTaskExecutor executor = new ExceptionHandlingAsyncTaskExecutor(new TaskExecutorAdapter(worker));
+
+    @AfterEach
+    public void tearDown() {
+        MDC.clear();
+        worker.shutdownNow();
+    }
+
+    @Test
+    public void testPropagateAndResetMdc() throws Exception {
+        MDC.put("traceId", "T1");
+        assertThat(executor.submit(() -> MDC.get("traceId")).get(5, TimeUnit.SECONDS)).isEqualTo("T1");
+        // The worker keeps the MDC of the request for the next task, which replaces it
+        assertThat(worker.submit(MDC::getCopyOfContextMap).get(5, TimeUnit.SECONDS)).isEqualTo(Map.of("traceId", "T1"));
+        MDC.put("traceId", "T2");
+        assertThat(executor.submit(() -> MDC.get("traceId")).get(5, TimeUnit.SECONDS)).isEqualTo("T2");
+
+        // The MDC changed by the task is cleared
+        executor.submit(() -> MDC.put("userId", "U1")).get(5, TimeUnit.SECONDS);
+        assertThat(worker.submit(MDC::getCopyOfContextMap).get(5, TimeUnit.SECONDS)).isNullOrEmpty();
+
+        MDC.clear();
+        executor.submit(() -> MDC.put("userId", "U1")).get(5, TimeUnit.SECONDS);
+        assertThat(worker.submit(MDC::getCopyOfContextMap).get(5, TimeUnit.SECONDS)).isNullOrEmpty();
+    }
+
+    @Test
+    public void testHandleException() {
+        MDC.put("traceId", "T1");
+        executor.execute(() -> {
+            throw new IllegalStateException("Async error");
+        });
+        assertThat(worker.submit(MDC::getCopyOfContextMap)).succeedsWithin(5, TimeUnit.SECONDS)
+                .isEqualTo(Map.of("traceId", "T1"));
+    }
+
+    /**
+     * Measure the bytes allocated by the worker thread per task, the MDC of the request has 3 entries
+     */
+    @Test
+    @Tag("benchmark")
+    public void testMdcAllocation() throws Exception {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long workerId = worker.submit(() -> Thread.currentThread().threadId()).get(5, TimeUnit.SECONDS);
+        int tasks = 100_000;
+        for (int round = 0; round < 3; round++) {
+            MDC.put("traceId", "T1");
+            MDC.put("userId", "U1");
+            MDC.put("tenant", "tenant1");
+            long sameMdcBytes = measureAllocatedBytes(threadMXBean, workerId, tasks, false);
+            long distinctMdcBytes = measureAllocatedBytes(threadMXBean, workerId, tasks, true);
+            MDC.clear();
+            long noMdcBytes = measureAllocatedBytes(threadMXBean, workerId, tasks, false);
+            log.info("Worker allocation per task: {} bytes with the same MDC, {} bytes with a distinct MDC, {} bytes without MDC",
+                    sameMdcBytes / tasks, distinctMdcBytes / tasks, noMdcBytes / tasks);
+        }
+    }
+
+    private long measureAllocatedBytes(ThreadMXBean threadMXBean, long workerId, int tasks, boolean distinctMdc) throws Exception {
+        Runnable task = () -> {
+        };
+        long before = threadMXBean.getThreadAllocatedBytes(workerId);
+        for (int i = 0; i < tasks; i++) {
+            if (distinctMdc) {
+                MDC.put("traceId", "T" + (i & 1));
+            }
+            executor.execute(task);
+        }
+        executor.submit(task).get(5, TimeUnit.SECONDS);
+        return threadMXBean.getThreadAllocatedBytes(workerId) - before;
+    }
+}
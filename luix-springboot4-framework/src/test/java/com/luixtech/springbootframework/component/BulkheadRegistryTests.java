@@ -0,0 +1,178 @@
+package com.luixtech.springbootframework.component;
+
+import com.luixtech.springbootframework.config.LuixProperties;
+import com.luixtech.springbootframework.exception.BulkheadFullException;
+import com.luixtech.utilities.exception.InvocationTimeoutException;
+import com.luixtech.utilities.thread.RequestContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BulkheadRegistryTests {
+    private final LuixProperties   luixProperties = new LuixProperties();
+    private final MeterRegistry    meterRegistry  = new SimpleMeterRegistry();
+    private final ExecutorService  callers        = Executors.newCachedThreadPool();
+    private       BulkheadRegistry bulkheadRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        LuixProperties.Bulkhead threadPool = new LuixProperties.Bulkhead();
+        threadPool.setCorePoolSize(1);
+        threadPool.setMaxPoolSize(1);
+        threadPool.setQueueCapacity(1);
+        luixProperties.getBulkheads().put("thread-pool", threadPool);
+
+        LuixProperties.Bulkhead timeout = new LuixProperties.Bulkhead();
+        timeout.setTimeoutMillis(50);
+        luixProperties.getBulkheads().put("timeout", timeout);
+
+        LuixProperties.Bulkhead semaphore = new LuixProperties.Bulkhead();
+        semaphore.setType(LuixProperties.Bulkhead.Type.SEMAPHORE);
+        semaphore.setMaxConcurrentCalls(1);
+        luixProperties.getBulkheads().put("semaphore", semaphore);
+
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+        bulkheadRegistry = new BulkheadRegistry(luixProperties, beanFactory.getBeanProvider(MeterRegistry.class));
+        bulkheadRegistry.afterPropertiesSet();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        callers.shutdownNow();
+        bulkheadRegistry.destroy();
+    }
+
+    @Test
+    public void testThreadPoolSaturation() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        // One call is executing and the other one is queued
+        Future<String> executing = callers.submit(() -> bulkheadRegistry.execute("thread-pool", () -> {
+            entered.countDown();
+            release.await();
+            return Thread.currentThread().getName();
+        }));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<String> queued = callers.submit(() -> bulkheadRegistry.execute("thread-pool", () -> "queued"));
+        waitUntil(() -> meterRegistry.get("luix.thread.pool.queued").tag("name", "thread-pool").gauge().value() == 1);
+
+        assertThatThrownBy(() -> bulkheadRegistry.execute("thread-pool", () -> "rejected"))
+                .isInstanceOf(BulkheadFullException.class);
+        assertThat(meterRegistry.get("luix.bulkhead.rejected").tag("name", "thread-pool").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        // Executed in the dedicated thread pool
+        assertThat(executing.get(5, TimeUnit.SECONDS)).startsWith("bulkhead-thread-pool-");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("queued");
+    }
+
+    @Test
+    public void testSemaphoreSaturation() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> executing = callers.submit(() -> bulkheadRegistry.execute("semaphore", () -> {
+            entered.countDown();
+            release.await();
+            return Thread.currentThread().getName();
+        }));
+        assertThat(entered.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(meterRegistry.get("luix.bulkhead.active").tag("name", "semaphore").gauge().value()).isEqualTo(1);
+
+        assertThatThrownBy(() -> bulkheadRegistry.execute("semaphore", () -> "rejected"))
+                .isInstanceOf(BulkheadFullException.class);
+        assertThat(meterRegistry.get("luix.bulkhead.rejected").tag("name", "semaphore").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        executing.get(5, TimeUnit.SECONDS);
+        // Executed in the caller thread
+        assertThat(bulkheadRegistry.execute("semaphore", () -> Thread.currentThread())).isSameAs(Thread.currentThread());
+    }
+
+    @Test
+    public void testResponseStatus() {
+        ResponseStatus responseStatus = AnnotatedElementUtils.findMergedAnnotation(BulkheadFullException.class, ResponseStatus.class);
+        assertThat(responseStatus).isNotNull();
+        assertThat(responseStatus.value()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @Test
+    public void testTimeout() {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        assertThatThrownBy(() -> bulkheadRegistry.execute("timeout", () -> sleep(interrupted)))
+                .isInstanceOf(InvocationTimeoutException.class);
+        // The future is cancelled and the thread is interrupted
+        assertThat(await(interrupted)).isTrue();
+    }
+
+    @Test
+    public void testDeadline() {
+        CountDownLatch interrupted = new CountDownLatch(1);
+        // No timeout configured for the compartment, the deadline of the request applies
+        RequestContext context = RequestContext.of(null, null, null).withTimeout(50, TimeUnit.MILLISECONDS);
+        assertThatThrownBy(() -> context.call(() -> bulkheadRegistry.execute("thread-pool", () -> sleep(interrupted))))
+                .isInstanceOf(InvocationTimeoutException.class);
+        assertThat(await(interrupted)).isTrue();
+    }
+
+    @Test
+    public void testException() {
+        assertThatThrownBy(() -> bulkheadRegistry.execute("thread-pool", () -> {
+            throw new IllegalStateException("Downstream error");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("Downstream error");
+    }
+
+    @Test
+    public void testPropagateMdc() throws Exception {
+        MDC.put("traceId", "T1");
+        try {
+            assertThat(bulkheadRegistry.execute("thread-pool", () -> MDC.get("traceId"))).isEqualTo("T1");
+            // The MDC changed by the task is NOT kept by the bulkhead thread
+            bulkheadRegistry.execute("thread-pool", () -> {
+                MDC.put("userId", "U1");
+                return null;
+            });
+            MDC.clear();
+            assertThat(bulkheadRegistry.execute("thread-pool", MDC::getCopyOfContextMap)).isNullOrEmpty();
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private static String sleep(CountDownLatch interrupted) {
+        try {
+            Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+        }
+        return "completed";
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitUntil(Callable<Boolean> condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.call()) {
+            assertThat(System.nanoTime() - deadline).isNegative();
+            Thread.sleep(1);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.luixtech.springbootframework.config.metrics;
+
+import com.luixtech.utilities.thread.pool.NetworkThreadPoolExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NetworkThreadPoolExecutorMetricsTests {
+
+    @Test
+    public void testThreadPoolMetrics() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        NetworkThreadPoolExecutor executor = new NetworkThreadPoolExecutor(1, 1, 10);
+        new NetworkThreadPoolExecutorMetrics(executor, "remote-service").bindTo(meterRegistry);
+        for (int i = 0; i < 10; i++) {
+            executor.submit(() -> {
+                TimeUnit.MILLISECONDS.sleep(1);
+                return null;
+            }).get();
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+
+        Map<?, ?> threadPools = new LuixMetricsEndpoint(meterRegistry).allMetrics().get("threadPools");
+        @SuppressWarnings("unchecked")
+        Map<String, Number> metrics = (Map<String, Number>) threadPools.get("remote-service");
+        assertThat(metrics.get("execution.count")).isEqualTo(10L);
+        assertThat(metrics.get("completed")).isEqualTo(10D);
+        // The percentiles are computed by the timers besides the histogram buckets
+        assertThat(metrics).containsKeys("queue.wait.0.5", "queue.wait.0.99", "execution.0.5", "execution.0.99");
+        assertThat(metrics.get("execution.0.99").doubleValue()).isGreaterThanOrEqualTo(1D);
+    }
+}
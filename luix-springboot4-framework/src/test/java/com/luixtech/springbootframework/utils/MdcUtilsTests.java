@@ -0,0 +1,168 @@
+package com.luixtech.springbootframework.utils;
+
+import ch.qos.logback.classic.util.LogbackMDCAdapter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.slf4j.helpers.BasicMDCAdapter;
+import org.slf4j.spi.MDCAdapter;
+
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MdcUtilsTests {
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    public void tearDown() {
+        MDC.clear();
+        worker.shutdownNow();
+    }
+
+    @Test
+    public void testReuseSnapshot() throws Exception {
+        MDC.put("traceId", "T1");
+        Map<String, String> snapshot = MdcUtils.capture();
+        // The read-only map cached by logback is NOT copied
+        assertThat(MdcUtils.capture()).isSameAs(snapshot).containsEntry("traceId", "T1");
+        assertThatThrownBy(() -> snapshot.put("traceId", "T2")).isInstanceOf(UnsupportedOperationException.class);
+
+        Map<String, String> restored = onWorker(() -> {
+            MdcUtils.restore(snapshot);
+            return getPropertyMap();
+        });
+        // Restoring the same snapshot again is skipped, so the MDC map of the worker is NOT copied again
+        assertThat(onWorker(() -> {
+            MdcUtils.restore(snapshot);
+            return getPropertyMap();
+        })).isSameAs(restored).containsEntry("traceId", "T1");
+
+        // Restored by the capturing thread, e.g. caller runs policy
+        MdcUtils.restore(snapshot);
+        assertThat(getPropertyMap()).isSameAs(snapshot);
+    }
+
+    @Test
+    public void testRestoreAfterChanged() throws Exception {
+        MDC.put("traceId", "T1");
+        Map<String, String> snapshot = MdcUtils.capture();
+        onWorker(() -> {
+            MdcUtils.restore(snapshot);
+            // Changed by the task
+            MDC.put("userId", "U1");
+            MDC.put("traceId", "T2");
+            return null;
+        });
+        assertThat(onWorker(() -> {
+            MdcUtils.restore(snapshot);
+            return MDC.getCopyOfContextMap();
+        })).isEqualTo(Map.of("traceId", "T1"));
+    }
+
+    @Test
+    public void testClearStaleMdc() throws Exception {
+        onWorker(() -> {
+            MDC.put("traceId", "stale");
+            return null;
+        });
+        assertThat(onWorker(() -> {
+            MdcUtils.restore(null);
+            return MDC.get("traceId");
+        })).isNull();
+
+        onWorker(() -> {
+            MDC.put("traceId", "stale");
+            return null;
+        });
+        assertThat(onWorker(() -> {
+            MdcUtils.restore(Collections.emptyMap());
+            return MDC.get("traceId");
+        })).isNull();
+    }
+
+    @Test
+    public void testReset() throws Exception {
+        MDC.put("traceId", "T1");
+        Map<String, String> snapshot = MdcUtils.capture();
+        // Kept for the next task of the same request
+        assertThat(onWorker(() -> {
+            MdcUtils.restore(snapshot);
+            MdcUtils.reset(snapshot);
+            return MDC.getCopyOfContextMap();
+        })).isEqualTo(Map.of("traceId", "T1"));
+        // Cleared if changed by the task
+        assertThat(onWorker(() -> {
+            MdcUtils.restore(snapshot);
+            MDC.put("userId", "U1");
+            MdcUtils.reset(snapshot);
+            return MDC.getCopyOfContextMap();
+        })).isNullOrEmpty();
+        // Cleared if set by the task without MDC
+        assertThat(onWorker(() -> {
+            MdcUtils.restore(null);
+            MDC.put("userId", "U1");
+            MdcUtils.reset(null);
+            return MDC.getCopyOfContextMap();
+        })).isNullOrEmpty();
+    }
+
+    @Test
+    public void testWrap() throws Exception {
+        MDC.put("traceId", "T1");
+        Callable<Map<String, String>> task = MdcUtils.wrap(MdcUtilsTests::getPropertyMap);
+        Map<String, String> restored = worker.submit(task).get(5, TimeUnit.SECONDS);
+        assertThat(restored).isEqualTo(Map.of("traceId", "T1"));
+        // The MDC of the worker is NOT copied again for the next task of the same request
+        assertThat(worker.submit(MdcUtils.wrap(MdcUtilsTests::getPropertyMap)).get(5, TimeUnit.SECONDS)).isSameAs(restored);
+
+        // Run by the capturing thread, e.g. caller runs policy, the MDC is kept
+        MdcUtils.wrap(() -> {
+        }).run();
+        assertThat(MDC.get("traceId")).isEqualTo("T1");
+    }
+
+    @Test
+    public void testNonLogbackFallback() throws Exception {
+        MDCAdapter logbackAdapter = MDC.getMDCAdapter();
+        assertThat(logbackAdapter).isInstanceOf(LogbackMDCAdapter.class);
+        Field field = MDC.class.getDeclaredField("mdcAdapter");
+        field.setAccessible(true);
+        field.set(null, new BasicMDCAdapter());
+        try {
+            MDC.put("traceId", "T1");
+            Map<String, String> snapshot = MdcUtils.capture();
+            // Copied as the other logging systems may NOT provide an immutable map
+            assertThat(snapshot).isEqualTo(Map.of("traceId", "T1")).isNotSameAs(MdcUtils.capture());
+            assertThatThrownBy(() -> snapshot.put("traceId", "T2")).isInstanceOf(UnsupportedOperationException.class);
+
+            assertThat(onWorker(() -> {
+                MDC.put("userId", "stale");
+                MdcUtils.restore(snapshot);
+                return MDC.getCopyOfContextMap();
+            })).isEqualTo(Map.of("traceId", "T1"));
+            assertThat(onWorker(() -> {
+                MdcUtils.restore(null);
+                return MDC.getCopyOfContextMap();
+            })).isNullOrEmpty();
+            MDC.clear();
+        } finally {
+            field.set(null, logbackAdapter);
+        }
+    }
+
+    private <T> T onWorker(Callable<T> task) throws Exception {
+        return worker.submit(task).get(5, TimeUnit.SECONDS);
+    }
+
+    private static Map<String, String> getPropertyMap() {
+        return ((LogbackMDCAdapter) MDC.getMDCAdapter()).getPropertyMap();
+    }
+}
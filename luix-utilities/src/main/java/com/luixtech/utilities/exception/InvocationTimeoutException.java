@@ -11,5 +11,6 @@ public class InvocationTimeoutException extends RuntimeException {
 
     public InvocationTimeoutException(long timeoutInMs, String message) {
         super(message);
+        this.timeoutInMs = timeoutInMs;
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.luixtech.utilities.exception;
+
+import lombok.EqualsAndHashCode;
+
+/**
+ * Thrown when a request is rejected by rate limiting
+ */
+@EqualsAndHashCode(callSuper = true)
+public class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+}
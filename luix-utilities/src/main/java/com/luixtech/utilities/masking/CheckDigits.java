@@ -0,0 +1,149 @@
+package com.luixtech.utilities.masking;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+
+/**
+ * Validation of the digit sequences recognized as ID cards or bank cards by {@link SensitiveTextScrubber} and
+ * {@link Utf8MaskingUtils}, so the other long numbers, e.g. snowflake IDs, order numbers, nanosecond timestamps or
+ * trace IDs, are NOT masked by mistake.
+ * <ul>
+ *     <li>18-digit ID card: valid birth date and GB 11643 mod 11-2 check character</li>
+ *     <li>15-digit ID card: valid birth date, the first generation ID card has no check digit</li>
+ *     <li>bank card: Luhn check digit</li>
+ * </ul>
+ */
+final class CheckDigits {
+    /**
+     * Weights of the first 17 digits of the ID card, 2^(17 - i) mod 11
+     */
+    private static final int[]  ID_CARD_WEIGHTS     = {7, 9, 10, 5, 8, 4, 2, 1, 6, 3, 7, 9, 10, 5, 8, 4, 2};
+    /**
+     * Check character of the ID card by the weighted sum mod 11
+     */
+    private static final char[] ID_CARD_CHECK_CHARS = {'1', '0', 'X', '9', '8', '7', '6', '5', '4', '3', '2'};
+    private static final int[]  DAYS_OF_MONTH       = {31, 29, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private CheckDigits() {
+    }
+
+    /**
+     * Validate the ID card of 15 digits, 18 digits, or 17 digits followed by 'X' or 'x'
+     *
+     * @param text   text
+     * @param start  start index of the ID card
+     * @param length length of the ID card
+     * @return true if it is a valid ID card
+     */
+    static boolean isIdCard(CharSequence text, int start, int length) {
+        if (length == 15) {
+            return isDate(19, digits(text, start + 6, 2), digits(text, start + 8, 2), digits(text, start + 10, 2));
+        }
+        if (!isDate(digits(text, start + 6, 2), digits(text, start + 8, 2), digits(text, start + 10, 2),
+                digits(text, start + 12, 2))) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < 17; i++) {
+            sum += (text.charAt(start + i) - '0') * ID_CARD_WEIGHTS[i];
+        }
+        return ID_CARD_CHECK_CHARS[sum % 11] == Character.toUpperCase(text.charAt(start + 17));
+    }
+
+    /**
+     * Validate the ID card of 15 digits, 18 digits, or 17 digits followed by 'X' or 'x'
+     *
+     * @param segment UTF-8 encoded memory segment
+     * @param start   start offset of the ID card
+     * @param length  length of the ID card
+     * @return true if it is a valid ID card
+     */
+    static boolean isIdCard(MemorySegment segment, long start, long length) {
+        if (length == 15) {
+            return isDate(19, digits(segment, start + 6, 2), digits(segment, start + 8, 2), digits(segment, start + 10, 2));
+        }
+        if (!isDate(digits(segment, start + 6, 2), digits(segment, start + 8, 2), digits(segment, start + 10, 2),
+                digits(segment, start + 12, 2))) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < 17; i++) {
+            sum += (get(segment, start + i) - '0') * ID_CARD_WEIGHTS[i];
+        }
+        return ID_CARD_CHECK_CHARS[sum % 11] == Character.toUpperCase((char) get(segment, start + 17));
+    }
+
+    /**
+     * Validate the Luhn check digit of the bank card
+     *
+     * @param text   text
+     * @param start  start index of the bank card
+     * @param length length of the bank card
+     * @return true if the check digit is valid
+     */
+    static boolean isLuhnValid(CharSequence text, int start, int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += luhnDigit(text.charAt(start + length - 1 - i) - '0', i);
+        }
+        return sum % 10 == 0;
+    }
+
+    /**
+     * Validate the Luhn check digit of the bank card
+     *
+     * @param segment UTF-8 encoded memory segment
+     * @param start   start offset of the bank card
+     * @param length  length of the bank card
+     * @return true if the check digit is valid
+     */
+    static boolean isLuhnValid(MemorySegment segment, long start, long length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += luhnDigit(get(segment, start + length - 1 - i) - '0', i);
+        }
+        return sum % 10 == 0;
+    }
+
+    /**
+     * Double every second digit from the rightmost one, which is the check digit
+     */
+    private static int luhnDigit(int digit, int indexFromRight) {
+        if ((indexFromRight & 1) == 0) {
+            return digit;
+        }
+        int doubled = digit * 2;
+        return doubled > 9 ? doubled - 9 : doubled;
+    }
+
+    private static boolean isDate(int century, int year, int month, int day) {
+        if ((century != 19 && century != 20) || month < 1 || month > 12 || day < 1) {
+            return false;
+        }
+        if (month == 2 && day == 29) {
+            int fullYear = century * 100 + year;
+            return fullYear % 4 == 0 && (fullYear % 100 != 0 || fullYear % 400 == 0);
+        }
+        return day <= DAYS_OF_MONTH[month - 1];
+    }
+
+    private static int digits(CharSequence text, int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            value = value * 10 + text.charAt(i) - '0';
+        }
+        return value;
+    }
+
+    private static int digits(MemorySegment segment, long start, int length) {
+        int value = 0;
+        for (long i = start; i < start + length; i++) {
+            value = value * 10 + get(segment, i) - '0';
+        }
+        return value;
+    }
+
+    private static byte get(MemorySegment segment, long offset) {
+        return segment.get(ValueLayout.JAVA_BYTE, offset);
+    }
+}
@@ -1,21 +1,48 @@
 package com.luixtech.utilities.masking;
 
+import com.luixtech.utilities.thread.RequestContext;
+
+/**
+ * Holder of the data masking switch of the current thread.
+ * <p>
+ * The switch is bound by {@link RequestContext#withMaskEnabled(Boolean)}, which is propagated to the tasks explicitly.
+ * The thread local value is a fallback for the code NOT bound to a context, and it is NOT inherited by the child
+ * threads, so no copy is made when a thread is created.
+ */
 public abstract class DataMaskingThreadContextHolder {
-    private static final ThreadLocal<Boolean> HOLDER = new InheritableThreadLocal<>() {
+    private static final ThreadLocal<Boolean> HOLDER = new ThreadLocal<>() {
         @Override
         protected Boolean initialValue() {
             return true;
         }
     };
 
+    /**
+     * Get the data masking switch of the bound {@link RequestContext}, or the thread local value if not specified
+     *
+     * @return true if data masking is enabled
+     */
     public static Boolean getMaskEnabled() {
+        RequestContext context = RequestContext.current();
+        if (context != null && context.getMaskEnabled() != null) {
+            return context.getMaskEnabled();
+        }
         return HOLDER.get();
     }
 
+    /**
+     * @param enabled whether to enable data masking
+     * @deprecated bind the switch by {@link RequestContext#withMaskEnabled(Boolean)} instead
+     */
+    @Deprecated
     public static void setMaskEnabled(Boolean enabled) {
         HOLDER.set(enabled);
     }
 
+    /**
+     * @deprecated bind the switch by {@link RequestContext#withMaskEnabled(Boolean)} instead
+     */
+    @Deprecated
     public static void destroy() {
         HOLDER.remove();
     }
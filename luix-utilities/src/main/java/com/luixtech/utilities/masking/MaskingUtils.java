@@ -2,6 +2,17 @@ package com.luixtech.utilities.masking;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Data masking utilities.
+ * <p>
+ * Each masker is done in a single pass, the String version writes into one pre-sized char array,
+ * the char array, {@link StringBuilder} and {@link Appendable} versions write into the caller-supplied destination
+ * without creating any temporary string.
+ */
 public abstract class MaskingUtils {
 
     /**
@@ -21,8 +32,7 @@ public abstract class MaskingUtils {
         if (StringUtils.isBlank(fullName)) {
             return StringUtils.EMPTY;
         }
-        final String name = StringUtils.left(fullName, 1);
-        return StringUtils.rightPad(name, StringUtils.length(fullName), "*");
+        return maskRight(fullName, 1);
     }
 
     /**
@@ -32,10 +42,7 @@ public abstract class MaskingUtils {
         if (StringUtils.isBlank(id)) {
             return StringUtils.EMPTY;
         }
-        String paddedLast4 = StringUtils.leftPad(StringUtils.right(id, 4), StringUtils.length(id), '*');
-        String starPrefix = "*".repeat(3);
-        String tail = paddedLast4.startsWith(starPrefix) ? paddedLast4.substring(starPrefix.length()) : paddedLast4;
-        return StringUtils.left(id, 3).concat(tail);
+        return maskMiddle(id, 3);
     }
 
     /**
@@ -45,7 +52,9 @@ public abstract class MaskingUtils {
         if (StringUtils.isBlank(num)) {
             return StringUtils.EMPTY;
         }
-        return StringUtils.leftPad(StringUtils.right(num, 4), StringUtils.length(num), "*");
+        char[] dest = new char[num.length()];
+        maskLandlinePhone(num, dest);
+        return new String(dest);
     }
 
     /**
@@ -55,11 +64,7 @@ public abstract class MaskingUtils {
         if (StringUtils.isBlank(num)) {
             return StringUtils.EMPTY;
         }
-        String paddedLast4 = StringUtils.leftPad(StringUtils.right(num, 4), StringUtils.length(num), '*');
-        String starPrefix = "*".repeat(3);
-        String tail = paddedLast4.startsWith(starPrefix) ? paddedLast4.substring(starPrefix.length()) : paddedLast4;
-        return StringUtils.left(num, 3).concat(tail);
-
+        return maskMiddle(num, 3);
     }
 
     /**
@@ -72,8 +77,7 @@ public abstract class MaskingUtils {
         if (StringUtils.isBlank(address)) {
             return StringUtils.EMPTY;
         }
-        final int length = StringUtils.length(address);
-        return StringUtils.rightPad(StringUtils.left(address, length - sensitiveCharacterLength), length, "*");
+        return maskRight(address, addressPrefixLength(address, sensitiveCharacterLength));
     }
 
     /**
@@ -86,10 +90,10 @@ public abstract class MaskingUtils {
         final int index = email.indexOf('@');
         if (index <= 1) {
             return email;
-        } else {
-            return StringUtils.rightPad(StringUtils.left(email, 1), index, "*")
-                    .concat(StringUtils.mid(email, index, StringUtils.length(email)));
         }
+        char[] dest = new char[email.length()];
+        maskEmail(email, dest);
+        return new String(dest);
     }
 
     /**
@@ -99,10 +103,7 @@ public abstract class MaskingUtils {
         if (StringUtils.isBlank(cardNum)) {
             return StringUtils.EMPTY;
         }
-        String paddedLast4 = StringUtils.leftPad(StringUtils.right(cardNum, 4), StringUtils.length(cardNum), '*');
-        String starPrefix = "*".repeat(6);
-        String tail = paddedLast4.startsWith(starPrefix) ? paddedLast4.substring(starPrefix.length()) : paddedLast4;
-        return StringUtils.left(cardNum, 6).concat(tail);
+        return maskMiddle(cardNum, 6);
     }
 
     /**
@@ -112,6 +113,478 @@ public abstract class MaskingUtils {
         if (StringUtils.isBlank(code)) {
             return StringUtils.EMPTY;
         }
-        return StringUtils.rightPad(StringUtils.left(code, 2), StringUtils.length(code), "*");
+        return maskRight(code, 2);
+    }
+
+    /**
+     * [中文姓名] 写入目标数组，结果与{@link #maskChineseName(String)}相同
+     *
+     * @param fullName full name
+     * @param dest     destination buffer
+     * @return number of characters written to dest, or -1 if dest is too small
+     */
+    public static int maskChineseName(final String fullName, final char[] dest) {
+        if (StringUtils.isBlank(fullName)) {
+            return 0;
+        }
+        return maskRight(fullName, 1, dest);
+    }
+
+    /**
+     * [身份证号] 写入目标数组，结果与{@link #maskIdCard(String)}相同
+     *
+     * @param id   ID card number
+     * @param dest destination buffer
+     * @return number of characters written to dest, or -1 if dest is too small
+     */
+    public static int maskIdCard(final String id, final char[] dest) {
+        if (StringUtils.isBlank(id)) {
+            return 0;
+        }
+        return maskMiddle(id, 3, dest);
+    }
+
+    /**
+     * [固定电话] 写入目标数组，结果与{@link #maskLandlinePhone(String)}相同
+     *
+     * @param num  phone number
+     * @param dest destination buffer
+     * @return number of characters written to dest, or -1 if dest is too small
+     */
+    public static int maskLandlinePhone(final String num, final char[] dest) {
+        if (StringUtils.isBlank(num)) {
+            return 0;
+        }
+        int length = num.length();
+        if (length > dest.length) {
+            return -1;
+        }
+        int stars = Math.max(length - 4, 0);
+        Arrays.fill(dest, 0, stars, '*');
+        num.getChars(stars, length, dest, stars);
+        return length;
+    }
+
+    /**
+     * [手机号码] 写入目标数组，结果与{@link #maskMobilePhone(String)}相同
+     *
+     * @param num  phone number
+     * @param dest destination buffer
+     * @return number of characters written to dest, or -1 if dest is too small
+     */
+    public static int maskMobilePhone(final String num, final char[] dest) {
+        if (StringUtils.isBlank(num)) {
+            return 0;
+        }
+        return maskMiddle(num, 3, dest);
+    }
+
+    /**
+     * [地址] 写入目标数组，结果与{@link #maskAddress(String, int)}相同
+     *
+     * @param address                  address
+     * @param sensitiveCharacterLength sensitive character length
+     * @param dest                     destination buffer
+     * @return number of characters written to dest, or -1 if dest is too small
+     */
+    public static int maskAddress(final String address, final int sensitiveCharacterLength, final char[] dest) {
+        if (StringUtils.isBlank(address)) {
+            return 0;
+        }
+        return maskRight(address, addressPrefixLength(address, sensitiveCharacterLength), dest);
+    }
+
+    /**
+     * [电子邮箱] 写入目标数组，结果与{@link #maskEmail(String)}相同
+     *
+     * @param email email
+     * @param dest  destination buffer
+     * @return number of characters written to dest, or -1 if dest is too small
+     */
+    public static int maskEmail(final String email, final char[] dest) {
+        if (StringUtils.isBlank(email)) {
+            return 0;
+        }
+        int length = email.length();
+        if (length > dest.length) {
+            return -1;
+        }
+        email.getChars(0, length, dest, 0);
+        final int index = email.indexOf('@');
+        if (index > 1) {
+            Arrays.fill(dest, 1, index, '*');
+        }
+        return length;
+    }
+
+    /**
+     * [银行卡号] 写入目标数组，结果与{@link #maskBankCard(String)}相同
+     *
+     * @param cardNum card number
+     * @param dest    destination buffer
+     * @return number of characters written to dest, or -1 if dest is too small
+     */
+    public static int maskBankCard(final String cardNum, final char[] dest) {
+        if (StringUtils.isBlank(cardNum)) {
+            return 0;
+        }
+        return maskMiddle(cardNum, 6, dest);
+    }
+
+    /**
+     * [公司开户银行联号] 写入目标数组，结果与{@link #maskCnapsCode(String)}相同
+     *
+     * @param code CNAPS code
+     * @param dest destination buffer
+     * @return number of characters written to dest, or -1 if dest is too small
+     */
+    public static int maskCnapsCode(final String code, final char[] dest) {
+        if (StringUtils.isBlank(code)) {
+            return 0;
+        }
+        return maskRight(code, 2, dest);
+    }
+
+    /**
+     * [中文姓名] 追加到目标，结果与{@link #maskChineseName(String)}相同
+     *
+     * @param fullName full name
+     * @param out      destination
+     * @param <A>      destination type
+     * @return the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public static <A extends Appendable> A maskChineseName(final String fullName, final A out) throws IOException {
+        if (StringUtils.isNotBlank(fullName)) {
+            appendRight(fullName, 1, out);
+        }
+        return out;
+    }
+
+    /**
+     * [身份证号] 追加到目标，结果与{@link #maskIdCard(String)}相同
+     *
+     * @param id  ID card number
+     * @param out destination
+     * @param <A> destination type
+     * @return the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public static <A extends Appendable> A maskIdCard(final String id, final A out) throws IOException {
+        if (StringUtils.isNotBlank(id)) {
+            appendMiddle(id, 3, out);
+        }
+        return out;
+    }
+
+    /**
+     * [固定电话] 追加到目标，结果与{@link #maskLandlinePhone(String)}相同
+     *
+     * @param num phone number
+     * @param out destination
+     * @param <A> destination type
+     * @return the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public static <A extends Appendable> A maskLandlinePhone(final String num, final A out) throws IOException {
+        if (StringUtils.isNotBlank(num)) {
+            int stars = Math.max(num.length() - 4, 0);
+            appendStars(stars, out);
+            out.append(num, stars, num.length());
+        }
+        return out;
+    }
+
+    /**
+     * [手机号码] 追加到目标，结果与{@link #maskMobilePhone(String)}相同
+     *
+     * @param num phone number
+     * @param out destination
+     * @param <A> destination type
+     * @return the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public static <A extends Appendable> A maskMobilePhone(final String num, final A out) throws IOException {
+        if (StringUtils.isNotBlank(num)) {
+            appendMiddle(num, 3, out);
+        }
+        return out;
+    }
+
+    /**
+     * [地址] 追加到目标，结果与{@link #maskAddress(String, int)}相同
+     *
+     * @param address                  address
+     * @param sensitiveCharacterLength sensitive character length
+     * @param out                      destination
+     * @param <A>                      destination type
+     * @return the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public static <A extends Appendable> A maskAddress(final String address, final int sensitiveCharacterLength,
+                                                       final A out) throws IOException {
+        if (StringUtils.isNotBlank(address)) {
+            appendRight(address, addressPrefixLength(address, sensitiveCharacterLength), out);
+        }
+        return out;
+    }
+
+    /**
+     * [电子邮箱] 追加到目标，结果与{@link #maskEmail(String)}相同
+     *
+     * @param email email
+     * @param out   destination
+     * @param <A>   destination type
+     * @return the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public static <A extends Appendable> A maskEmail(final String email, final A out) throws IOException {
+        if (StringUtils.isBlank(email)) {
+            return out;
+        }
+        final int index = email.indexOf('@');
+        if (index <= 1) {
+            out.append(email);
+        } else {
+            out.append(email.charAt(0));
+            appendStars(index - 1, out);
+            out.append(email, index, email.length());
+        }
+        return out;
+    }
+
+    /**
+     * [银行卡号] 追加到目标，结果与{@link #maskBankCard(String)}相同
+     *
+     * @param cardNum card number
+     * @param out     destination
+     * @param <A>     destination type
+     * @return the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public static <A extends Appendable> A maskBankCard(final String cardNum, final A out) throws IOException {
+        if (StringUtils.isNotBlank(cardNum)) {
+            appendMiddle(cardNum, 6, out);
+        }
+        return out;
+    }
+
+    /**
+     * [公司开户银行联号] 追加到目标，结果与{@link #maskCnapsCode(String)}相同
+     *
+     * @param code CNAPS code
+     * @param out  destination
+     * @param <A>  destination type
+     * @return the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public static <A extends Appendable> A maskCnapsCode(final String code, final A out) throws IOException {
+        if (StringUtils.isNotBlank(code)) {
+            appendRight(code, 2, out);
+        }
+        return out;
+    }
+
+    /**
+     * [中文姓名] 追加到StringBuilder，结果与{@link #maskChineseName(String)}相同
+     */
+    public static StringBuilder maskChineseName(final String fullName, final StringBuilder sb) {
+        try {
+            maskChineseName(fullName, (Appendable) sb);
+            return sb;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * [身份证号] 追加到StringBuilder，结果与{@link #maskIdCard(String)}相同
+     */
+    public static StringBuilder maskIdCard(final String id, final StringBuilder sb) {
+        try {
+            maskIdCard(id, (Appendable) sb);
+            return sb;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * [固定电话] 追加到StringBuilder，结果与{@link #maskLandlinePhone(String)}相同
+     */
+    public static StringBuilder maskLandlinePhone(final String num, final StringBuilder sb) {
+        try {
+            maskLandlinePhone(num, (Appendable) sb);
+            return sb;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * [手机号码] 追加到StringBuilder，结果与{@link #maskMobilePhone(String)}相同
+     */
+    public static StringBuilder maskMobilePhone(final String num, final StringBuilder sb) {
+        try {
+            maskMobilePhone(num, (Appendable) sb);
+            return sb;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * [地址] 追加到StringBuilder，结果与{@link #maskAddress(String, int)}相同
+     */
+    public static StringBuilder maskAddress(final String address, final int sensitiveCharacterLength, final StringBuilder sb) {
+        try {
+            maskAddress(address, sensitiveCharacterLength, (Appendable) sb);
+            return sb;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * [电子邮箱] 追加到StringBuilder，结果与{@link #maskEmail(String)}相同
+     */
+    public static StringBuilder maskEmail(final String email, final StringBuilder sb) {
+        try {
+            maskEmail(email, (Appendable) sb);
+            return sb;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * [银行卡号] 追加到StringBuilder，结果与{@link #maskBankCard(String)}相同
+     */
+    public static StringBuilder maskBankCard(final String cardNum, final StringBuilder sb) {
+        try {
+            maskBankCard(cardNum, (Appendable) sb);
+            return sb;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * [公司开户银行联号] 追加到StringBuilder，结果与{@link #maskCnapsCode(String)}相同
+     */
+    public static StringBuilder maskCnapsCode(final String code, final StringBuilder sb) {
+        try {
+            maskCnapsCode(code, (Appendable) sb);
+            return sb;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Same as StringUtils.left(address, length - sensitiveCharacterLength).length()
+     */
+    private static int addressPrefixLength(String address, int sensitiveCharacterLength) {
+        return Math.max(address.length() - sensitiveCharacterLength, 0);
+    }
+
+    private static String maskRight(String text, int prefixLength) {
+        char[] dest = new char[text.length()];
+        maskRight(text, prefixLength, dest);
+        return new String(dest);
+    }
+
+    private static String maskMiddle(String text, int prefixLength) {
+        char[] dest = new char[middleMaskedLength(text, prefixLength)];
+        maskMiddle(text, prefixLength, dest);
+        return new String(dest);
+    }
+
+    /**
+     * Keep the first characters and replace the others with '*'
+     *
+     * @param text         text
+     * @param prefixLength number of the leading characters to keep
+     * @param dest         destination buffer
+     * @return number of characters written to dest, or -1 if dest is too small
+     */
+    private static int maskRight(String text, int prefixLength, char[] dest) {
+        int length = text.length();
+        if (length > dest.length) {
+            return -1;
+        }
+        int keep = Math.min(prefixLength, length);
+        text.getChars(0, keep, dest, 0);
+        Arrays.fill(dest, keep, length, '*');
+        return length;
+    }
+
+    private static void appendRight(String text, int prefixLength, Appendable out) throws IOException {
+        int keep = Math.min(prefixLength, text.length());
+        out.append(text, 0, keep);
+        appendStars(text.length() - keep, out);
+    }
+
+    /**
+     * Keep the first characters and the last four characters, replace the others with '*'.
+     * It has the same output as left(text, prefixLength) concatenating leftPad(right(text, 4), length, '*')
+     * without the leading prefixLength stars, including the texts shorter than prefixLength + 4.
+     *
+     * @param text         text
+     * @param prefixLength number of the leading characters to keep
+     * @param dest         destination buffer
+     * @return number of characters written to dest, or -1 if dest is too small
+     */
+    private static int maskMiddle(String text, int prefixLength, char[] dest) {
+        int length = text.length();
+        // The padded text is composed of the stars and the last four characters
+        int stars = Math.max(length - 4, 0);
+        int tailStart = paddedStartsWithStars(text, stars, prefixLength) ? prefixLength : 0;
+        int keep = Math.min(prefixLength, length);
+        int maskedLength = keep + length - tailStart;
+        if (maskedLength > dest.length) {
+            return -1;
+        }
+        text.getChars(0, keep, dest, 0);
+        int pos = keep;
+        if (tailStart < stars) {
+            Arrays.fill(dest, pos, pos + stars - tailStart, '*');
+            pos += stars - tailStart;
+        }
+        text.getChars(Math.max(stars, tailStart), length, dest, pos);
+        return maskedLength;
+    }
+
+    private static void appendMiddle(String text, int prefixLength, Appendable out) throws IOException {
+        int length = text.length();
+        int stars = Math.max(length - 4, 0);
+        int tailStart = paddedStartsWithStars(text, stars, prefixLength) ? prefixLength : 0;
+        out.append(text, 0, Math.min(prefixLength, length));
+        appendStars(stars - tailStart, out);
+        out.append(text, Math.max(stars, tailStart), length);
+    }
+
+    private static int middleMaskedLength(String text, int prefixLength) {
+        int length = text.length();
+        int tailStart = paddedStartsWithStars(text, Math.max(length - 4, 0), prefixLength) ? prefixLength : 0;
+        return Math.min(prefixLength, length) + length - tailStart;
+    }
+
+    private static boolean paddedStartsWithStars(String text, int stars, int prefixLength) {
+        if (text.length() < prefixLength) {
+            return false;
+        }
+        for (int i = stars; i < prefixLength; i++) {
+            if (text.charAt(i) != '*') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void appendStars(int count, Appendable out) throws IOException {
+        for (int i = 0; i < count; i++) {
+            out.append('*');
+        }
     }
 }
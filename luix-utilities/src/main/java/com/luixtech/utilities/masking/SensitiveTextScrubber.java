@@ -0,0 +1,335 @@
+package com.luixtech.utilities.masking;
+
+import com.luixtech.utilities.masking.annotation.SensitiveType;
+import com.luixtech.utilities.masking.strategy.Maskable;
+import com.luixtech.utilities.serviceloader.ServiceLoader;
+import org.apache.commons.lang3.Validate;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * Scrubber used to mask the sensitive words inside free text, e.g. log lines, exception messages.
+ * <p>
+ * The text is scanned in one linear pass by a hand-written state machine instead of a chain of regular expressions,
+ * and each sensitive word found is masked by the {@link Maskable} strategy of its {@link SensitiveType}:
+ * <ul>
+ *     <li>mobile phone: 11 digits starting with 13-19</li>
+ *     <li>landline phone: 11-12 digits starting with 0, or 0xx(x)-xxxxxxx(x)</li>
+ *     <li>ID card: 15 or 18 digits, or 17 digits followed by 'X', with a valid birth date and check character</li>
+ *     <li>bank card: 16, 17 or 19 digits with a valid Luhn check digit</li>
+ *     <li>email: local-part@domain.tld</li>
+ * </ul>
+ * A digit sequence is only regarded as a sensitive word if it is not adjacent to other ASCII letters or digits.
+ * Chinese names and addresses can NOT be recognized from free text, so they are never masked here.
+ */
+@ThreadSafe
+public class SensitiveTextScrubber {
+    /**
+     * Buffer size used to scrub the stream
+     */
+    private static final int                   STREAM_BUFFER_SIZE = 8192;
+    /**
+     * Initial size of the buffer the masked words are written to, which is longer than the most sensitive words
+     */
+    private static final int                   MASK_BUFFER_SIZE   = 32;
+    private static final SensitiveTextScrubber DEFAULT            = new SensitiveTextScrubber();
+    private final        Maskable              mobilePhoneStrategy;
+    private final        Maskable              landlinePhoneStrategy;
+    private final        Maskable              idCardStrategy;
+    private final        Maskable              bankCardStrategy;
+    private final        Maskable              emailStrategy;
+
+    /**
+     * Create a scrubber with the masking strategies loaded by {@link ServiceLoader}
+     */
+    public SensitiveTextScrubber() {
+        ServiceLoader<Maskable> loader = ServiceLoader.forClass(Maskable.class);
+        this.mobilePhoneStrategy = loader.load(SensitiveType.MOBILE_PHONE);
+        this.landlinePhoneStrategy = loader.load(SensitiveType.LANDLINE_PHONE);
+        this.idCardStrategy = loader.load(SensitiveType.ID_CARD);
+        this.bankCardStrategy = loader.load(SensitiveType.BANK_CARD);
+        this.emailStrategy = loader.load(SensitiveType.EMAIL);
+    }
+
+    /**
+     * Get the shared scrubber instance
+     *
+     * @return scrubber
+     */
+    public static SensitiveTextScrubber getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Mask all the sensitive words of the text
+     *
+     * @param text text
+     * @return the masked text, or the text itself if no sensitive word is found
+     */
+    public String scrub(String text) {
+        if (text == null || text.isEmpty()) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text);
+        return scrub(sb, 0) ? sb.toString() : text;
+    }
+
+    /**
+     * Mask all the sensitive words of the text
+     *
+     * @param text text
+     * @return the masked text
+     */
+    public String scrub(CharSequence text) {
+        if (text == null) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder(text);
+        scrub(sb, 0);
+        return sb.toString();
+    }
+
+    /**
+     * Mask all the sensitive words of the text in place
+     *
+     * @param sb   text
+     * @param from start index of the text to scrub
+     * @return true if any sensitive word is masked
+     */
+    public boolean scrub(StringBuilder sb, int from) {
+        Validate.notNull(sb, "Text must not be null!");
+        return scrub(sb, from, sb.length()) > 0;
+    }
+
+    /**
+     * Mask all the sensitive words read from the reader, and write the result to the writer.
+     * The text is processed chunk by chunk and a chunk is always split at a non-word character,
+     * so the sensitive words spanning two reads are also masked.
+     *
+     * @param in  reader
+     * @param out writer
+     * @throws IOException if an I/O error occurs
+     */
+    public void scrub(Reader in, Writer out) throws IOException {
+        StringBuilder pending = new StringBuilder(STREAM_BUFFER_SIZE * 2);
+        char[] chunk = new char[STREAM_BUFFER_SIZE];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            pending.append(chunk, 0, read);
+            int boundary = lastBoundary(pending);
+            if (boundary < 0 && pending.length() < STREAM_BUFFER_SIZE) {
+                // Wait for more characters to complete the word
+                continue;
+            }
+            // Flush the whole buffer if there is no boundary inside a long word
+            int end = boundary < 0 ? pending.length() : boundary + 1;
+            int length = pending.length();
+            scrub(pending, 0, end);
+            end += pending.length() - length;
+            out.append(pending, 0, end);
+            pending.delete(0, end);
+        }
+        scrub(pending, 0);
+        out.append(pending);
+    }
+
+    /**
+     * Scrub the text between from and to in place
+     *
+     * @param sb   text
+     * @param from start index, inclusive
+     * @param to   end index, exclusive
+     * @return count of the masked words
+     */
+    private int scrub(StringBuilder sb, int from, int to) {
+        int count = 0;
+        // Created on the first match, so the text without sensitive words allocates nothing
+        char[] buffer = null;
+        int i = from;
+        while (i < to) {
+            char c = sb.charAt(i);
+            if (!isEmailLocalChar(c) || (i > from && isEmailLocalChar(sb.charAt(i - 1)))) {
+                i++;
+                continue;
+            }
+            // Start of a word
+            int wordEnd = i;
+            while (wordEnd < to && isEmailLocalChar(sb.charAt(wordEnd))) {
+                wordEnd++;
+            }
+            if (wordEnd < to && sb.charAt(wordEnd) == '@') {
+                int domainEnd = scanDomain(sb, wordEnd + 1, to);
+                if (domainEnd > 0) {
+                    buffer = ensureCapacity(buffer, domainEnd - i);
+                    int change = mask(sb, i, domainEnd, emailStrategy, buffer);
+                    to += change;
+                    count++;
+                    i = domainEnd + change;
+                    continue;
+                }
+            }
+            // Find the digit sequences inside the word
+            int j = i;
+            while (j < wordEnd) {
+                if (!isDigit(sb.charAt(j)) || (j > from && isAsciiLetterOrDigit(sb.charAt(j - 1)))) {
+                    j++;
+                    continue;
+                }
+                int digitsEnd = j;
+                while (digitsEnd < to && isDigit(sb.charAt(digitsEnd))) {
+                    digitsEnd++;
+                }
+                int matchEnd = digitsEnd;
+                Maskable strategy = null;
+                int length = digitsEnd - j;
+                if (length == 17 && digitsEnd < to && (sb.charAt(digitsEnd) == 'X' || sb.charAt(digitsEnd) == 'x')) {
+                    matchEnd = digitsEnd + 1;
+                    strategy = CheckDigits.isIdCard(sb, j, 18) ? idCardStrategy : null;
+                } else if (length >= 3 && length <= 4 && sb.charAt(j) == '0' && digitsEnd < to && sb.charAt(digitsEnd) == '-') {
+                    int localEnd = digitsEnd + 1;
+                    while (localEnd < to && isDigit(sb.charAt(localEnd))) {
+                        localEnd++;
+                    }
+                    int localLength = localEnd - digitsEnd - 1;
+                    if (localLength >= 7 && localLength <= 8) {
+                        matchEnd = localEnd;
+                        strategy = landlinePhoneStrategy;
+                    }
+                } else {
+                    strategy = classifyDigits(sb, j, length);
+                }
+                if (strategy == null || (matchEnd < to && isAsciiLetterOrDigit(sb.charAt(matchEnd)))) {
+                    j = Math.max(digitsEnd, j + 1);
+                    continue;
+                }
+                buffer = ensureCapacity(buffer, matchEnd - j);
+                int change = mask(sb, j, matchEnd, strategy, buffer);
+                to += change;
+                wordEnd += change;
+                count++;
+                j = matchEnd + change;
+            }
+            i = wordEnd;
+        }
+        return count;
+    }
+
+    private Maskable classifyDigits(StringBuilder sb, int start, int length) {
+        switch (length) {
+            case 11:
+                char second = sb.charAt(start + 1);
+                if (sb.charAt(start) == '1' && second >= '3' && second <= '9') {
+                    return mobilePhoneStrategy;
+                }
+                return sb.charAt(start) == '0' ? landlinePhoneStrategy : null;
+            case 12:
+                return sb.charAt(start) == '0' ? landlinePhoneStrategy : null;
+            case 15:
+            case 18:
+                return CheckDigits.isIdCard(sb, start, length) ? idCardStrategy : null;
+            case 16:
+            case 17:
+            case 19:
+                return CheckDigits.isLuhnValid(sb, start, length) ? bankCardStrategy : null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Scan the domain of the email
+     *
+     * @param sb   text
+     * @param from start index of the domain
+     * @param to   end index of the text
+     * @return end index of the domain, or -1 if it is not a valid domain
+     */
+    private static int scanDomain(StringBuilder sb, int from, int to) {
+        int end = -1;
+        int labelStart = from;
+        int dots = 0;
+        int i = from;
+        while (i < to) {
+            char c = sb.charAt(i);
+            if (isAsciiLetterOrDigit(c) || c == '-') {
+                i++;
+                continue;
+            }
+            if (c != '.' || i == labelStart) {
+                break;
+            }
+            dots++;
+            labelStart = ++i;
+        }
+        if (dots > 0 && i - labelStart >= 2 && isAsciiLetter(sb.charAt(i - 1)) && isAsciiLetter(sb.charAt(labelStart))) {
+            end = i;
+        } else if (dots > 1 && labelStart == i) {
+            // Trailing dot, e.g. the end of a sentence
+            end = scanDomain(sb, from, i - 1);
+        }
+        return end;
+    }
+
+    /**
+     * Mask the word in place, the masked word is written to the buffer instead of creating a string
+     *
+     * @return the length change of the text
+     */
+    private static int mask(StringBuilder sb, int start, int end, Maskable strategy, char[] buffer) {
+        String word = sb.substring(start, end);
+        int length = strategy.mask(word, buffer);
+        if (length < 0) {
+            // The masked word of the custom strategy is longer than the buffer
+            String masked = strategy.mask(word);
+            sb.replace(start, end, masked);
+            return masked.length() - word.length();
+        }
+        if (length == word.length()) {
+            for (int k = 0; k < length; k++) {
+                sb.setCharAt(start + k, buffer[k]);
+            }
+            return 0;
+        }
+        sb.delete(start, end).insert(start, buffer, 0, length);
+        return length - word.length();
+    }
+
+    private static char[] ensureCapacity(char[] buffer, int length) {
+        if (buffer != null && buffer.length >= length) {
+            return buffer;
+        }
+        return new char[Math.max(MASK_BUFFER_SIZE, length * 2)];
+    }
+
+    /**
+     * Get the index of the last character which can NOT be part of a sensitive word
+     */
+    private static int lastBoundary(StringBuilder sb) {
+        for (int i = sb.length() - 1; i >= 0; i--) {
+            char c = sb.charAt(i);
+            if (!isEmailLocalChar(c) && c != '@') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isEmailLocalChar(char c) {
+        return isAsciiLetterOrDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(char c) {
+        return isDigit(c) || isAsciiLetter(c);
+    }
+}
@@ -8,20 +8,85 @@ import tools.jackson.databind.ValueSerializer;
 import com.luixtech.utilities.masking.annotation.SensitiveField;
 import com.luixtech.utilities.masking.strategy.Maskable;
 import com.luixtech.utilities.serviceloader.ServiceLoader;
-import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.Validate;
 
 import java.util.Objects;
 
+/**
+ * Serializer of the {@link SensitiveField} annotated properties.
+ * <p>
+ * The contextual serializer is cached by Jackson, so it always carries the resolved masking strategy and decides
+ * whether to mask the value at write time. The per-call attribute {@link #MASK_ENABLED_ATTRIBUTE} takes precedence
+ * over {@link DataMaskingThreadContextHolder}, which makes it possible to prepare both writers once, e.g.
+ * <pre>
+ * ObjectWriter maskedWriter = mapper.writer().withAttribute(SensitiveWordSerializer.MASK_ENABLED_ATTRIBUTE, true);
+ * ObjectWriter unmaskedWriter = mapper.writer().withAttribute(SensitiveWordSerializer.MASK_ENABLED_ATTRIBUTE, false);
+ * </pre>
+ */
 @NoArgsConstructor
-@AllArgsConstructor
 public class SensitiveWordSerializer extends ValueSerializer<String> {
-    private String sensitiveType;
+    /**
+     * Attribute name of the {@link tools.jackson.databind.ObjectWriter} used to enable or disable the data masking
+     */
+    public static final  String              MASK_ENABLED_ATTRIBUTE = SensitiveWordSerializer.class.getName() + ".maskEnabled";
+    /**
+     * Extra buffer length for the masking strategies whose output is longer than the input
+     */
+    private static final int                 EXTRA_BUFFER_LENGTH    = 8;
+    /**
+     * Maximum length of the buffer kept by each thread
+     */
+    private static final int                 MAX_BUFFER_LENGTH      = 4096;
+    /**
+     * Reusable buffer of the masked characters, the generator copies them before returning
+     */
+    private static final ThreadLocal<char[]> BUFFER                 = ThreadLocal.withInitial(() -> new char[256]);
+    private              String              sensitiveType;
+    /**
+     * Masking strategy resolved once per property
+     */
+    private              Maskable            maskingStrategy;
+
+    public SensitiveWordSerializer(String sensitiveType) {
+        this.sensitiveType = sensitiveType;
+        this.maskingStrategy = ServiceLoader.forClass(Maskable.class).load(sensitiveType);
+        Validate.notNull(maskingStrategy, "No masking strategy found for sensitive type: " + sensitiveType);
+    }
 
     @Override
     public void serialize(String value, JsonGenerator jsonGenerator, SerializationContext context) {
-        Maskable maskingStrategy = ServiceLoader.forClass(Maskable.class).load(this.sensitiveType);
-        jsonGenerator.writeString(maskingStrategy.mask(value));
+        if (!isMaskEnabled(context)) {
+            jsonGenerator.writeString(value);
+            return;
+        }
+        char[] buffer = getBuffer(value.length() + EXTRA_BUFFER_LENGTH);
+        int length = maskingStrategy.mask(value, buffer);
+        if (length >= 0) {
+            jsonGenerator.writeString(buffer, 0, length);
+        } else {
+            jsonGenerator.writeString(maskingStrategy.mask(value));
+        }
+    }
+
+    private static boolean isMaskEnabled(SerializationContext context) {
+        Object enabled = context.getAttribute(MASK_ENABLED_ATTRIBUTE);
+        if (enabled != null) {
+            return Boolean.TRUE.equals(enabled);
+        }
+        return Boolean.TRUE.equals(DataMaskingThreadContextHolder.getMaskEnabled());
+    }
+
+    private static char[] getBuffer(int length) {
+        char[] buffer = BUFFER.get();
+        if (buffer.length >= length) {
+            return buffer;
+        }
+        buffer = new char[length];
+        if (length <= MAX_BUFFER_LENGTH) {
+            BUFFER.set(buffer);
+        }
+        return buffer;
     }
 
     @Override
@@ -35,8 +100,8 @@ public class SensitiveWordSerializer extends ValueSerializer<String> {
                 if (field == null) {
                     field = beanProperty.getContextAnnotation(SensitiveField.class);
                 }
-                if (field != null && Boolean.TRUE.equals(DataMaskingThreadContextHolder.getMaskEnabled())) {
-                    // Execute data masking
+                if (field != null) {
+                    // Whether to mask the value is decided at write time, because the serializer is cached
                     return new SensitiveWordSerializer(field.value());
                 }
             }
@@ -44,4 +109,4 @@ public class SensitiveWordSerializer extends ValueSerializer<String> {
         }
         return context.findNullValueSerializer(null);
     }
-}
\ No newline at end of file
+}
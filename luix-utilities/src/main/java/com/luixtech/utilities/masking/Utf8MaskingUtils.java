@@ -0,0 +1,317 @@
+package com.luixtech.utilities.masking;
+
+import org.apache.commons.lang3.Validate;
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteOrder;
+
+/**
+ * Data masking utilities working on UTF-8 encoded bytes, e.g. a large JSON export, without decoding them.
+ * <p>
+ * The sensitive words recognized by {@link SensitiveTextScrubber} are all ASCII, and none of the bytes of a
+ * multibyte UTF-8 character is in the ASCII range, so the bytes can be masked in place with the same rules
+ * as {@link MaskingUtils}:
+ * <ul>
+ *     <li>mobile phone: 11 digits starting with 13-19, <例子:138****1234></li>
+ *     <li>landline phone: 11-12 digits starting with 0, or 0xx(x)-xxxxxxx(x), <例子:********4567></li>
+ *     <li>ID card: 15 or 18 digits, or 17 digits followed by 'X', with a valid birth date and check character,
+ *     <例子:420***********5769></li>
+ *     <li>bank card: 16, 17 or 19 digits with a valid Luhn check digit, <例子:622260******1232></li>
+ *     <li>email: local-part@domain.tld, <例子:g****@163.com></li>
+ * </ul>
+ * The bytes containing neither digits nor '@' are skipped by the Vector API if the module 'jdk.incubator.vector'
+ * is available at runtime, e.g. started with '--add-modules jdk.incubator.vector', otherwise eight bytes at a time
+ * with SWAR (SIMD within a register) operations. The words around the remaining bytes are then checked one byte
+ * at a time.
+ */
+public abstract class Utf8MaskingUtils {
+    private static final ValueLayout.OfLong LONG_LAYOUT = ValueLayout.JAVA_LONG_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+    private static final long               ONES        = 0x0101010101010101L;
+    private static final long               HIGH_BITS   = 0x8080808080808080L;
+    private static final long               LOW_BITS    = 0x7F7F7F7F7F7F7F7FL;
+    private static final byte               STAR        = '*';
+    /**
+     * Whether to skip the bytes by the Vector API
+     */
+    static final         boolean            VECTORIZED  = isVectorAvailable();
+
+    /**
+     * Mask the sensitive words of the UTF-8 bytes in place
+     *
+     * @param bytes UTF-8 bytes
+     * @return count of the masked words
+     */
+    public static int mask(final byte[] bytes) {
+        Validate.notNull(bytes, "Bytes must not be null!");
+        return mask(MemorySegment.ofArray(bytes), 0, bytes.length);
+    }
+
+    /**
+     * Mask the sensitive words of the UTF-8 bytes in place
+     *
+     * @param bytes  UTF-8 bytes
+     * @param offset start index, inclusive
+     * @param length number of bytes to mask
+     * @return count of the masked words
+     */
+    public static int mask(final byte[] bytes, final int offset, final int length) {
+        Validate.notNull(bytes, "Bytes must not be null!");
+        Validate.isTrue(offset >= 0 && length >= 0 && offset + length <= bytes.length, "Invalid offset or length!");
+        return mask(MemorySegment.ofArray(bytes), offset, offset + length);
+    }
+
+    /**
+     * Mask the sensitive words of the UTF-8 encoded memory segment in place
+     *
+     * @param segment UTF-8 encoded memory segment
+     * @return count of the masked words
+     */
+    public static int mask(final MemorySegment segment) {
+        Validate.notNull(segment, "Segment must not be null!");
+        return mask(segment, 0, segment.byteSize());
+    }
+
+    /**
+     * Mask the sensitive words between from and to in place
+     *
+     * @param segment UTF-8 encoded memory segment
+     * @param from    start offset, inclusive
+     * @param to      end offset, exclusive
+     * @return count of the masked words
+     */
+    public static int mask(final MemorySegment segment, final long from, final long to) {
+        return mask(segment, from, to, VECTORIZED);
+    }
+
+    static int mask(final MemorySegment segment, final long from, final long to, final boolean vectorized) {
+        Validate.isTrue(!segment.isReadOnly(), "Segment must be writable!");
+        Validate.isTrue(!vectorized || VECTORIZED, "Vector API is unavailable!");
+        return new Scanner(segment, from, to, vectorized).scan();
+    }
+
+    private static boolean isVectorAvailable() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return Utf8VectorScanner.isWide();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    private static int getPrefixLength(MemorySegment segment, long start, long length) {
+        byte first = get(segment, start);
+        if (length == 11) {
+            byte second = get(segment, start + 1);
+            if (first == '1' && second >= '3' && second <= '9') {
+                // Mobile phone
+                return 3;
+            }
+            return first == '0' ? 0 : -1;
+        }
+        if (length == 12) {
+            // Landline phone
+            return first == '0' ? 0 : -1;
+        }
+        if (length == 15 || length == 18) {
+            // ID card
+            return CheckDigits.isIdCard(segment, start, length) ? 3 : -1;
+        }
+        if (length == 16 || length == 17 || length == 19) {
+            // Bank card
+            return CheckDigits.isLuhnValid(segment, start, length) ? 6 : -1;
+        }
+        return -1;
+    }
+
+    private static long scanDomain(MemorySegment segment, long from, long to) {
+        long labelStart = from;
+        int dots = 0;
+        long i = from;
+        while (i < to) {
+            byte c = get(segment, i);
+            if (isAsciiLetterOrDigit(c) || c == '-') {
+                i++;
+                continue;
+            }
+            if (c != '.' || i == labelStart) {
+                break;
+            }
+            dots++;
+            labelStart = ++i;
+        }
+        if (dots > 0 && i - labelStart >= 2 && isAsciiLetter(get(segment, i - 1)) && isAsciiLetter(get(segment, labelStart))) {
+            return i;
+        }
+        if (dots > 1 && labelStart == i) {
+            // Trailing dot, e.g. the end of a sentence
+            return scanDomain(segment, from, i - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Check whether any of the eight bytes is a digit or '@'
+     *
+     * @param word eight bytes
+     * @return true if any byte is a digit or '@'
+     */
+    static boolean hasDigitOrAt(long word) {
+        long low = word & LOW_BITS;
+        // Bytes between '/' and ':' exclusively, the bytes with the high bit set are excluded by ~word
+        long digits = ((ONES * (127 + ':')) - low) & ~word & (low + ONES * (127 - '/'));
+        // Zero bytes of word ^ '@'
+        long at = word ^ (ONES * '@');
+        long ats = (at - ONES) & ~at;
+        return ((digits | ats) & HIGH_BITS) != 0;
+    }
+
+    /**
+     * Skip eight bytes at a time until the bytes containing a digit or '@'
+     *
+     * @param segment memory segment
+     * @param from    start offset, inclusive
+     * @param to      end offset, exclusive
+     * @return offset of the eight bytes containing a digit or '@', or the offset of the remaining bytes
+     */
+    private static long skip(MemorySegment segment, long from, long to) {
+        long i = from;
+        while (i + Long.BYTES <= to && !hasDigitOrAt(segment.get(LONG_LAYOUT, i))) {
+            i += Long.BYTES;
+        }
+        return i;
+    }
+
+    private static byte get(MemorySegment segment, long offset) {
+        return segment.get(ValueLayout.JAVA_BYTE, offset);
+    }
+
+    private static boolean isDigitOrAt(byte c) {
+        return isDigit(c) || c == '@';
+    }
+
+    private static boolean isEmailLocalChar(byte c) {
+        return isAsciiLetterOrDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isAsciiLetter(byte c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiLetterOrDigit(byte c) {
+        return isDigit(c) || isAsciiLetter(c);
+    }
+
+    private static class Scanner {
+        private final MemorySegment segment;
+        private final long          from;
+        private final long          to;
+        private final boolean       vectorized;
+        private       int           count;
+
+        private Scanner(MemorySegment segment, long from, long to, boolean vectorized) {
+            this.segment = segment;
+            this.from = from;
+            this.to = to;
+            this.vectorized = vectorized;
+        }
+
+        private int scan() {
+            long processed = from;
+            long i = from;
+            while (i < to) {
+                i = vectorized ? Utf8VectorScanner.skip(segment, i, to) : skip(segment, i, to);
+                while (i < to && !isDigitOrAt(get(segment, i))) {
+                    i++;
+                }
+                if (i >= to) {
+                    break;
+                }
+                // Back up to the start of the word, e.g. the local part of the email
+                long start = i;
+                while (start > processed && isEmailLocalChar(get(segment, start - 1))) {
+                    start--;
+                }
+                processed = i = Math.max(maskWord(start), i + 1);
+            }
+            return count;
+        }
+
+        /**
+         * Mask the word beginning at the start
+         *
+         * @param start start of the word
+         * @return end of the processed bytes
+         */
+        private long maskWord(long start) {
+            long wordEnd = start;
+            while (wordEnd < to && isEmailLocalChar(get(segment, wordEnd))) {
+                wordEnd++;
+            }
+            if (wordEnd > start && wordEnd < to && get(segment, wordEnd) == '@') {
+                long domainEnd = scanDomain(segment, wordEnd + 1, to);
+                if (domainEnd > 0) {
+                    // Keep the first character of the local part
+                    if (wordEnd - start > 1) {
+                        segment.asSlice(start + 1, wordEnd - start - 1).fill(STAR);
+                    }
+                    count++;
+                    // The characters following the domain are not the start of a new word
+                    while (domainEnd < to && isEmailLocalChar(get(segment, domainEnd))) {
+                        domainEnd++;
+                    }
+                    return domainEnd;
+                }
+            }
+            long j = start;
+            while (j < wordEnd) {
+                if (!isDigit(get(segment, j)) || (j > from && isAsciiLetterOrDigit(get(segment, j - 1)))) {
+                    j++;
+                    continue;
+                }
+                long digitsEnd = j;
+                while (digitsEnd < to && isDigit(get(segment, digitsEnd))) {
+                    digitsEnd++;
+                }
+                long length = digitsEnd - j;
+                long matchEnd = digitsEnd;
+                // Number of the leading characters to keep, or -1 if it is not a sensitive word
+                int prefixLength = -1;
+                if (length == 17 && digitsEnd < to && (get(segment, digitsEnd) | 0x20) == 'x') {
+                    // ID card
+                    matchEnd = digitsEnd + 1;
+                    prefixLength = CheckDigits.isIdCard(segment, j, 18) ? 3 : -1;
+                } else if (length >= 3 && length <= 4 && get(segment, j) == '0' && digitsEnd < to
+                        && get(segment, digitsEnd) == '-') {
+                    long localEnd = digitsEnd + 1;
+                    while (localEnd < to && isDigit(get(segment, localEnd))) {
+                        localEnd++;
+                    }
+                    long localLength = localEnd - digitsEnd - 1;
+                    if (localLength >= 7 && localLength <= 8) {
+                        // Landline phone
+                        matchEnd = localEnd;
+                        prefixLength = 0;
+                    }
+                } else {
+                    prefixLength = getPrefixLength(segment, j, length);
+                }
+                if (prefixLength < 0 || (matchEnd < to && isAsciiLetterOrDigit(get(segment, matchEnd)))) {
+                    j = digitsEnd;
+                    continue;
+                }
+                // Keep the prefix and the last four characters
+                segment.asSlice(j + prefixLength, matchEnd - j - prefixLength - 4).fill(STAR);
+                count++;
+                j = matchEnd;
+            }
+            return Math.max(wordEnd, j);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.luixtech.utilities.masking;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteOrder;
+
+/**
+ * Skips the bytes containing neither digits nor '@' with the Vector API, which is only loaded by
+ * {@link Utf8MaskingUtils} if the module 'jdk.incubator.vector' is available at runtime, e.g. started with
+ * '--add-modules jdk.incubator.vector'.
+ */
+final class Utf8VectorScanner {
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private Utf8VectorScanner() {
+    }
+
+    /**
+     * Check whether the preferred vectors are wider than the eight bytes scanned by SWAR, otherwise the Vector API
+     * is NOT faster
+     *
+     * @return true if the vectors are wider
+     */
+    static boolean isWide() {
+        return SPECIES.length() > Long.BYTES;
+    }
+
+    /**
+     * Find the first digit or '@' between from and to
+     *
+     * @param segment memory segment
+     * @param from    start offset, inclusive
+     * @param to      end offset, exclusive
+     * @return offset of the first digit or '@', or the offset of the remaining bytes shorter than a vector
+     */
+    static long skip(MemorySegment segment, long from, long to) {
+        long i = from;
+        long bound = to - SPECIES.length();
+        while (i <= bound) {
+            ByteVector vector = ByteVector.fromMemorySegment(SPECIES, segment, i, ByteOrder.LITTLE_ENDIAN);
+            // The bytes of the multibyte UTF-8 characters are negative, so they are NOT digits
+            VectorMask<Byte> matches = vector.compare(VectorOperators.GE, (byte) '0')
+                    .and(vector.compare(VectorOperators.LE, (byte) '9'))
+                    .or(vector.compare(VectorOperators.EQ, (byte) '@'));
+            if (matches.anyTrue()) {
+                return i + matches.firstTrue();
+            }
+            i += SPECIES.length();
+        }
+        return i;
+    }
+}
@@ -0,0 +1,78 @@
+package com.luixtech.utilities.masking.logback;
+
+import ch.qos.logback.classic.pattern.ClassicConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import com.luixtech.utilities.masking.SensitiveTextScrubber;
+
+/**
+ * Logback converter used to mask the sensitive words of the formatted log message, including the arguments.
+ * <p>
+ * Usage:
+ * <pre>
+ * &lt;conversionRule conversionWord="msg" converterClass="com.luixtech.utilities.masking.logback.MaskingMessageConverter"/&gt;
+ * &lt;pattern&gt;%d %-5level [%thread] %logger - %msg%n&lt;/pattern&gt;
+ * </pre>
+ * The converter only reads the formatted message which has been prepared by the caller thread,
+ * so it is safe to be used behind an {@link ch.qos.logback.classic.AsyncAppender}.
+ */
+public class MaskingMessageConverter extends ClassicConverter {
+    /**
+     * Shortest digit sequence of the sensitive words, e.g. the local number of the landline phone
+     */
+    private static final int                        MIN_DIGITS_LENGTH = 7;
+    /**
+     * Maximum capacity of the buffer kept by each thread
+     */
+    private static final int                        MAX_BUFFER_LENGTH = 8192;
+    /**
+     * Reusable buffer of the masked message
+     */
+    private static final ThreadLocal<StringBuilder> BUFFER            = ThreadLocal.withInitial(() -> new StringBuilder(256));
+    private              SensitiveTextScrubber      scrubber;
+
+    @Override
+    public void start() {
+        scrubber = SensitiveTextScrubber.getDefault();
+        super.start();
+    }
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        String message = event.getFormattedMessage();
+        if (message == null || !mayContainSensitiveWords(message)) {
+            return message;
+        }
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        sb.append(message);
+        String result = scrubber.scrub(sb, 0) ? sb.toString() : message;
+        if (sb.capacity() > MAX_BUFFER_LENGTH) {
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    /**
+     * Check whether the message contains an '@' or a long enough digit sequence,
+     * most of the log messages can be skipped without scanning them by the scrubber
+     *
+     * @param message log message
+     * @return true if the message may contain sensitive words
+     */
+    static boolean mayContainSensitiveWords(String message) {
+        int digits = 0;
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits >= MIN_DIGITS_LENGTH) {
+                    return true;
+                }
+            } else if (c == '@') {
+                return true;
+            } else {
+                digits = 0;
+            }
+        }
+        return false;
+    }
+}
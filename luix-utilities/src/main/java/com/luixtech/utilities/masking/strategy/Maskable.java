@@ -11,4 +11,20 @@ public interface Maskable {
      * @return the masked text
      */
     String mask(String text);
+
+    /**
+     * Mask the text into the destination buffer without creating the masked string
+     *
+     * @param text the text to mask
+     * @param dest the destination buffer
+     * @return number of characters written to dest, or -1 if dest is too small
+     */
+    default int mask(String text, char[] dest) {
+        String masked = mask(text);
+        if (masked.length() > dest.length) {
+            return -1;
+        }
+        masked.getChars(0, masked.length(), dest, 0);
+        return masked.length();
+    }
 }
\ No newline at end of file
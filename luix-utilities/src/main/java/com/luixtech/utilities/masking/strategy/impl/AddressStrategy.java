@@ -15,4 +15,9 @@ public class AddressStrategy implements Maskable {
     public String mask(String text) {
         return MaskingUtils.maskAddress(text, 4);
     }
+
+    @Override
+    public int mask(String text, char[] dest) {
+        return MaskingUtils.maskAddress(text, 4, dest);
+    }
 }
\ No newline at end of file
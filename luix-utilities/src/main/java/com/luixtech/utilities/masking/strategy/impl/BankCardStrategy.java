@@ -12,4 +12,9 @@ public class BankCardStrategy implements Maskable {
     public String mask(String text) {
         return MaskingUtils.maskBankCard(text);
     }
+
+    @Override
+    public int mask(String text, char[] dest) {
+        return MaskingUtils.maskBankCard(text, dest);
+    }
 }
\ No newline at end of file
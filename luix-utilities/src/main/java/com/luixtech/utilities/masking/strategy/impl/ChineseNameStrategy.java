@@ -12,4 +12,9 @@ public class ChineseNameStrategy implements Maskable {
     public String mask(String text) {
         return MaskingUtils.maskChineseName(text);
     }
+
+    @Override
+    public int mask(String text, char[] dest) {
+        return MaskingUtils.maskChineseName(text, dest);
+    }
 }
\ No newline at end of file
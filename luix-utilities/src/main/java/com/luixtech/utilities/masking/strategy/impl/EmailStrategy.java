@@ -12,4 +12,9 @@ public class EmailStrategy implements Maskable {
     public String mask(String text) {
         return MaskingUtils.maskEmail(text);
     }
+
+    @Override
+    public int mask(String text, char[] dest) {
+        return MaskingUtils.maskEmail(text, dest);
+    }
 }
\ No newline at end of file
@@ -12,4 +12,9 @@ public class IdCardStrategy implements Maskable {
     public String mask(String text) {
         return MaskingUtils.maskIdCard(text);
     }
+
+    @Override
+    public int mask(String text, char[] dest) {
+        return MaskingUtils.maskIdCard(text, dest);
+    }
 }
\ No newline at end of file
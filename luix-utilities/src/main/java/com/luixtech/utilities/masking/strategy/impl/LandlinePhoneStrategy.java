@@ -12,4 +12,9 @@ public class LandlinePhoneStrategy implements Maskable {
     public String mask(String text) {
         return MaskingUtils.maskLandlinePhone(text);
     }
+
+    @Override
+    public int mask(String text, char[] dest) {
+        return MaskingUtils.maskLandlinePhone(text, dest);
+    }
 }
\ No newline at end of file
@@ -12,4 +12,9 @@ public class MobilePhoneStrategy implements Maskable {
     public String mask(String text) {
         return MaskingUtils.maskMobilePhone(text);
     }
+
+    @Override
+    public int mask(String text, char[] dest) {
+        return MaskingUtils.maskMobilePhone(text, dest);
+    }
 }
\ No newline at end of file
@@ -4,23 +4,26 @@ import com.luixtech.utilities.lang.CharacterUtils;
 import com.luixtech.utilities.serviceloader.annotation.Spi;
 import com.luixtech.utilities.serviceloader.annotation.SpiName;
 import com.luixtech.utilities.serviceloader.annotation.SpiScope;
+import com.luixtech.utilities.serviceloader.processor.SpiIndexProcessor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 
 import javax.annotation.concurrent.ThreadSafe;
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.lang.invoke.*;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 /**
  * A utility used to load a specified implementation of a service interface.
@@ -36,6 +39,9 @@ import java.util.concurrent.ConcurrentHashMap;
  * - The configuration file must be encoded in UTF-8
  * - The configuration file's name is the fully-qualified name of service provider interface
  * - The configuration file's contents are the fully-qualified name of service provider implementation class
+ * <p>
+ * The index files generated by {@link SpiIndexProcessor} at compile time are read in preference to the configuration files,
+ * which avoids validating the configuration files and resolving the SPI names by reflection at runtime.
  *
  * @param <T> Service interface type
  */
@@ -46,18 +52,42 @@ public class ServiceLoader<T> {
      * Service directory prefix
      */
     private static final String                        SERVICE_DIR_PREFIX          = "META-INF/services/";
+    /**
+     * SPI index directory prefix, the index files are generated by {@link SpiIndexProcessor}
+     */
+    public static final  String                        SPI_INDEX_DIR_PREFIX        = "META-INF/spi-index/";
+    /**
+     * System property used to disable the SPI index, e.g. -Dluix.spi.index.enabled=false
+     */
+    public static final  String                        SPI_INDEX_ENABLED_PROPERTY  = "luix.spi.index.enabled";
     /**
      * Charset of the service configuration file
      */
     public static final  Charset                       SERVICE_CONFIG_FILE_CHARSET = StandardCharsets.UTF_8;
     /**
-     * Cached used to store service loader instance associated with the service interface
+     * Indicates whether to read the SPI index files before the service configuration files
+     */
+    private static final boolean                       SPI_INDEX_ENABLED           =
+            !"false".equalsIgnoreCase(System.getProperty(SPI_INDEX_ENABLED_PROPERTY));
+    /**
+     * Cached used to store service loader instance associated with the service interface.
+     * The service loader is attached to the service interface class itself, so it can be reclaimed with the class loader
+     * of the service interface, and the service interfaces with the same name from different class loaders do NOT collide.
      */
-    private static final Map<String, ServiceLoader<?>> SERVICE_LOADERS_CACHE       = new ConcurrentHashMap<>();
+    private static final ClassValue<ServiceLoader<?>>  SERVICE_LOADERS_CACHE       = new ClassValue<>() {
+        @Override
+        protected ServiceLoader<?> computeValue(Class<?> serviceInterface) {
+            return createServiceLoader(serviceInterface);
+        }
+    };
     /**
      * The loaded service implementation singleton instances associated with the SPI name
      */
     private final        Map<String, T>                singletonInstances          = new ConcurrentHashMap<>();
+    /**
+     * The locks associated with the SPI name, used to load and instantiate different implementations concurrently
+     */
+    private final        Map<String, Object>           locks                       = new ConcurrentHashMap<>();
     /**
      * The class loader used to locate, load and instantiate service
      */
@@ -70,6 +100,23 @@ public class ServiceLoader<T> {
      * The loaded service implementation classes associated with the SPI name
      */
     private final        Map<String, Class<T>>         serviceImplClasses;
+    /**
+     * The instance factories of the service implementation classes associated with the SPI name
+     */
+    private final        Map<String, Supplier<T>>      instanceFactories           = new ConcurrentHashMap<>();
+    /**
+     * The scope of the service interface
+     */
+    private final        SpiScope                      scope;
+    /**
+     * Indicates whether to load and initialize the service implementation classes on first use
+     */
+    private final        boolean                       lazy;
+    /**
+     * The indexed service implementation class names associated with the SPI name, which have not been loaded yet.
+     * It is only used in lazy mode.
+     */
+    private final        Map<String, String>           unloadedImplClassNames      = new ConcurrentHashMap<>();
 
 
     /**
@@ -79,30 +126,26 @@ public class ServiceLoader<T> {
      * @param <T>              service interface type
      * @return the specified singleton service loader instance
      */
+    @SuppressWarnings("unchecked")
     public static <T> ServiceLoader<T> forClass(Class<T> serviceInterface) {
         Validate.notNull(serviceInterface, "Service interface must not be null!");
-        Validate.isTrue(serviceInterface.isInterface(), "Service interface must be an interface class!");
-        Validate.isTrue(serviceInterface.isAnnotationPresent(Spi.class), "Service interface must be annotated with @Spi annotation!");
-
-        return createServiceLoader(serviceInterface);
+        // Lock-free lookup once the service loader has been created
+        return (ServiceLoader<T>) SERVICE_LOADERS_CACHE.get(serviceInterface);
     }
 
     /**
-     * Create a service loader or get it from cache if exists
+     * Create a service loader, it is invoked once per service interface class unless threads race to create it,
+     * in which case only one of the created service loaders is cached
      *
      * @param serviceInterface service interface
      * @param <T>              service interface type
-     * @return service instance loader cache instance
+     * @return service instance loader instance
      */
-    @SuppressWarnings("unchecked")
-    private static synchronized <T> ServiceLoader<T> createServiceLoader(Class<T> serviceInterface) {
-        ServiceLoader<T> loader = (ServiceLoader<T>) SERVICE_LOADERS_CACHE.get(serviceInterface.getName());
-        if (loader == null) {
-            // Load all the implementation classes
-            loader = new ServiceLoader<>(serviceInterface.getClassLoader(), serviceInterface);
-            SERVICE_LOADERS_CACHE.put(serviceInterface.getName(), loader);
-        }
-        return loader;
+    private static <T> ServiceLoader<T> createServiceLoader(Class<T> serviceInterface) {
+        Validate.isTrue(serviceInterface.isInterface(), "Service interface must be an interface class!");
+        Validate.isTrue(serviceInterface.isAnnotationPresent(Spi.class), "Service interface must be annotated with @Spi annotation!");
+        // Load all the implementation classes
+        return new ServiceLoader<>(serviceInterface.getClassLoader(), serviceInterface);
     }
 
     /**
@@ -116,34 +159,100 @@ public class ServiceLoader<T> {
         this.classLoader = preferred != null ? preferred :
                 (classLoader != null ? classLoader : Thread.currentThread().getContextClassLoader());
         this.serviceInterface = serviceInterface;
+        Spi spi = serviceInterface.getAnnotation(Spi.class);
+        this.scope = spi.scope();
+        this.lazy = spi.lazy();
         // Load all the implementation classes
         this.serviceImplClasses = loadImplClasses();
+        if (!lazy) {
+            this.serviceImplClasses.forEach((spiName, implClass) -> instanceFactories.put(spiName, createInstanceFactory(implClass)));
+        }
     }
 
     /**
-     * Load service implementation class based on the service configuration file
+     * Load service implementation class based on the SPI index files and the service configuration files.
+     * The service configuration file is skipped if there is an index file at the same location.
      *
      * @return service implementation class map
      */
-    @SuppressWarnings("unchecked")
     private Map<String, Class<T>> loadImplClasses() {
         String serviceFileName = SERVICE_DIR_PREFIX.concat(serviceInterface.getName());
+        Map<String, String> indexedImplClassNames = new LinkedHashMap<>();
         List<String> serviceImplClassNames = new ArrayList<>();
         try {
-            Enumeration<URL> fileUrls = classLoader != null ? classLoader.getResources(serviceFileName) :
-                    ClassLoader.getSystemResources(serviceFileName);
-            if (CollectionUtils.sizeIsEmpty(fileUrls)) {
-                log.warn("Cannot find the spi configuration file with name {}!", serviceFileName);
-                return Collections.EMPTY_MAP;
-            }
+            Set<String> indexedLocations = SPI_INDEX_ENABLED ? readSpiIndexes(indexedImplClassNames) : Collections.emptySet();
+            Enumeration<URL> fileUrls = getResources(serviceFileName);
             while (fileUrls.hasMoreElements()) {
+                URL fileUrl = fileUrls.nextElement();
+                if (indexedLocations.contains(getLocation(fileUrl, serviceFileName))) {
+                    // The implementations have been resolved from the index file
+                    continue;
+                }
                 // Loop each spi configuration file
-                readImplClassNames(fileUrls.nextElement(), serviceInterface, serviceImplClassNames);
+                readImplClassNames(fileUrl, serviceInterface, serviceImplClassNames);
             }
         } catch (Exception e) {
             throw new RuntimeException("Failed to load the spi configuration file: ".concat(serviceFileName), e);
         }
-        return loadImplClass(serviceImplClassNames);
+        if (indexedImplClassNames.isEmpty() && serviceImplClassNames.isEmpty()) {
+            log.warn("Cannot find the spi configuration file with name {}!", serviceFileName);
+            return new ConcurrentHashMap<>();
+        }
+        return loadImplClass(indexedImplClassNames, serviceImplClassNames);
+    }
+
+    /**
+     * Read the SPI index files generated by {@link SpiIndexProcessor}
+     *
+     * @param implClassNames SPI name to service implementation class name map
+     * @return locations of the index files
+     * @throws IOException if an I/O error occurs
+     */
+    private Set<String> readSpiIndexes(Map<String, String> implClassNames) throws IOException {
+        String indexFileName = SPI_INDEX_DIR_PREFIX.concat(serviceInterface.getName());
+        Enumeration<URL> fileUrls = getResources(indexFileName);
+        if (!fileUrls.hasMoreElements()) {
+            return Collections.emptySet();
+        }
+        Set<String> locations = new HashSet<>();
+        while (fileUrls.hasMoreElements()) {
+            URL fileUrl = fileUrls.nextElement();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(fileUrl.openStream(), SERVICE_CONFIG_FILE_CHARSET))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int separatorIdx = line.indexOf('=');
+                    if (line.startsWith("#") || separatorIdx <= 0) {
+                        continue;
+                    }
+                    String spiName = line.substring(0, separatorIdx);
+                    if (implClassNames.containsKey(spiName)) {
+                        // Same as the duplicated SPI names of the configuration files, the first one wins
+                        log.error("Found duplicated SPI name: " + spiName + " in the file " + fileUrl);
+                        continue;
+                    }
+                    implClassNames.put(spiName, line.substring(separatorIdx + 1));
+                }
+            }
+            locations.add(getLocation(fileUrl, indexFileName));
+            log.debug("Read the spi index file [{}]", fileUrl);
+        }
+        return locations;
+    }
+
+    private Enumeration<URL> getResources(String fileName) throws IOException {
+        return classLoader != null ? classLoader.getResources(fileName) : ClassLoader.getSystemResources(fileName);
+    }
+
+    /**
+     * Get the location of the resource, e.g. 'jar:file:/app/lib/a.jar!/' for 'jar:file:/app/lib/a.jar!/META-INF/services/x.Y'
+     *
+     * @param fileUrl  file resource url
+     * @param fileName relative file name
+     * @return location of the file
+     */
+    private static String getLocation(URL fileUrl, String fileName) {
+        String url = fileUrl.toExternalForm();
+        return url.endsWith(fileName) ? url.substring(0, url.length() - fileName.length()) : url;
     }
 
     /**
@@ -215,38 +324,51 @@ public class ServiceLoader<T> {
     /**
      * Load the service implementation class associated with the interface class name
      *
-     * @param implClassNames service implementation class name
+     * @param indexedImplClassNames SPI name to service implementation class name map read from the index files
+     * @param implClassNames        service implementation class name read from the service configuration files
      * @return spi name to service implementation class map
      */
-    @SuppressWarnings("unchecked")
-    private Map<String, Class<T>> loadImplClass(List<String> implClassNames) {
-        if (CollectionUtils.isEmpty(implClassNames)) {
-            return Collections.emptyMap();
-        }
-        Map<String, Class<T>> map = new ConcurrentHashMap<>(implClassNames.size());
-        for (String implClassName : implClassNames) {
-            try {
-                Class<T> implClass;
-                if (classLoader == null) {
-                    implClass = (Class<T>) Class.forName(implClassName);
-                } else {
-                    implClass = (Class<T>) Class.forName(implClassName, true, classLoader);
-                }
-                log.debug("Loaded the service instance [{}]", implClassName);
+    private Map<String, Class<T>> loadImplClass(Map<String, String> indexedImplClassNames, List<String> implClassNames) {
+        Map<String, Class<T>> map = new ConcurrentHashMap<>(indexedImplClassNames.size() + implClassNames.size());
+        // The index entries have been validated at compile time
+        indexedImplClassNames.forEach((spiName, implClassName) -> loadImplClass(map, spiName, implClassName));
+        implClassNames.forEach(implClassName -> loadImplClass(map, null, implClassName));
+        return map;
+    }
 
+    private void loadImplClass(Map<String, Class<T>> map, String spiName, String implClassName) {
+        try {
+            if (lazy && spiName != null) {
+                // Defer loading the indexed class until it is used
+                unloadedImplClassNames.put(spiName, implClassName);
+                return;
+            }
+            // The class is loaded without initialization in lazy mode, it will be initialized on first instantiation
+            Class<T> implClass = forName(implClassName, !lazy);
+            log.debug("Loaded the service instance [{}]", implClassName);
+
+            if (spiName == null) {
                 // Validate the implementation class
                 checkServiceImplClass(implClass);
 
                 // SPI service name, e.g, 'failover' strategy
-                String spiName = getSpiServiceName(implClass);
-
-                Validate.isTrue(!map.containsKey(spiName), "Found duplicated SPI name: " + spiName + " for " + implClass.getName());
-                map.put(spiName, implClass);
-            } catch (Exception e) {
-                log.error("Failed to load the spi class: " + implClassName, e);
+                spiName = getSpiServiceName(implClass);
             }
+
+            Validate.isTrue(!map.containsKey(spiName) && !unloadedImplClassNames.containsKey(spiName),
+                    "Found duplicated SPI name: " + spiName + " for " + implClass.getName());
+            map.put(spiName, implClass);
+        } catch (Exception e) {
+            log.error("Failed to load the spi class: " + implClassName, e);
         }
-        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<T> forName(String implClassName, boolean initialize) throws ClassNotFoundException {
+        if (classLoader == null) {
+            return (Class<T>) Class.forName(implClassName, initialize, ServiceLoader.class.getClassLoader());
+        }
+        return (Class<T>) Class.forName(implClassName, initialize, classLoader);
     }
 
     private void checkServiceImplClass(Class<T> implClass) {
@@ -291,13 +413,48 @@ public class ServiceLoader<T> {
         checkServiceImplClass(implClass);
         String spiName = getSpiServiceName(implClass);
         synchronized (serviceImplClasses) {
-            if (serviceImplClasses.containsKey(spiName)) {
+            if (serviceImplClasses.containsKey(spiName) || unloadedImplClassNames.containsKey(spiName)) {
                 throw new IllegalArgumentException("Already existing the service implementation class with name: " + spiName);
             }
+            instanceFactories.put(spiName, createInstanceFactory(implClass));
             serviceImplClasses.put(spiName, implClass);
         }
     }
 
+    /**
+     * Create the instance factory which invokes the no-arg constructor directly instead of by reflection
+     *
+     * @param implClass service implementation class
+     * @return instance factory
+     */
+    @SuppressWarnings("unchecked")
+    private Supplier<T> createInstanceFactory(Class<T> implClass) {
+        try {
+            // The generated lambda class is defined in the package of the implementation class
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(implClass, MethodHandles.lookup());
+            MethodHandle constructor = lookup.findConstructor(implClass, MethodType.methodType(void.class));
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class), constructor, MethodType.methodType(implClass));
+            return (Supplier<T>) callSite.getTarget().invokeExact();
+        } catch (Throwable e) {
+            // E.g. the implementation class is defined by another class loader, which the lookup has no full privilege access to
+            log.debug("Failed to create the instance factory of {}, fall back to reflection", implClass.getName(), e);
+        }
+        Constructor<T> constructor;
+        try {
+            constructor = implClass.getDeclaredConstructor();
+        } catch (NoSuchMethodException e) {
+            throw new RuntimeException("Failed to find the no-arg constructor of " + implClass.getName(), e);
+        }
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (ReflectiveOperationException e) {
+                throw new RuntimeException("Failed to instantiate " + implClass.getName(), e);
+            }
+        };
+    }
+
     /**
      * Get service implementation instance by name
      *
@@ -308,14 +465,13 @@ public class ServiceLoader<T> {
         Validate.notEmpty(name, "Service name must not be empty!");
 
         try {
-            Spi spi = serviceInterface.getAnnotation(Spi.class);
-            if (SpiScope.SINGLETON.equals(spi.scope())) {
+            if (SpiScope.SINGLETON == scope) {
                 return createSingleton(name);
             } else {
                 return createPrototype(name);
             }
         } catch (Exception e) {
-            throw new RuntimeException("Failed to load service instance: " + name);
+            throw new RuntimeException("Failed to load service instance: " + name, e);
         }
     }
 
@@ -325,38 +481,142 @@ public class ServiceLoader<T> {
      * @return service implementations
      */
     public List<T> loadAll() {
-        List<T> serviceImpls = new ArrayList<>(serviceImplClasses.size());
-        serviceImplClasses.keySet().forEach(key -> serviceImpls.add(load(key)));
+        Set<String> spiNames = getSpiNames();
+        List<T> serviceImpls = new ArrayList<>(spiNames.size());
+        spiNames.forEach(key -> serviceImpls.add(load(key)));
         return serviceImpls;
     }
 
-    private T createSingleton(String name) throws InstantiationException, IllegalAccessException, NoSuchMethodException, InvocationTargetException {
+    /**
+     * Get the SPI names of all the service implementations, including the ones not loaded yet in lazy mode
+     *
+     * @return SPI names
+     */
+    public Set<String> getSpiNames() {
+        // The name is put into serviceImplClasses before being removed from unloadedImplClassNames
+        Set<String> spiNames = new LinkedHashSet<>(unloadedImplClassNames.keySet());
+        spiNames.addAll(serviceImplClasses.keySet());
+        return spiNames;
+    }
+
+    /**
+     * Warm up the service loaders in parallel on the common fork-join pool
+     *
+     * @param serviceInterfaces service interfaces annotated @Spi annotation
+     * @return elapsed time associated with the 'service interface name#SPI name'
+     * @see #warmUp(Executor, Class[])
+     */
+    public static Map<String, Duration> warmUp(Class<?>... serviceInterfaces) {
+        return warmUp(ForkJoinPool.commonPool(), serviceInterfaces);
+    }
+
+    /**
+     * Warm up the service loaders in parallel, so the first request does not pay for loading them.
+     * All the implementation classes are loaded and initialized, and the singleton instances are created.
+     *
+     * @param executor          executor used to warm up, e.g. a {@link ForkJoinPool}
+     * @param serviceInterfaces service interfaces annotated @Spi annotation
+     * @return elapsed time associated with the 'service interface name#SPI name'
+     */
+    public static Map<String, Duration> warmUp(Executor executor, Class<?>... serviceInterfaces) {
+        Validate.notNull(executor, "Executor must not be null!");
+        Map<String, Duration> elapsedTimes = new ConcurrentSkipListMap<>();
+        CompletableFuture<?>[] futures = Arrays.stream(serviceInterfaces)
+                .map(serviceInterface -> CompletableFuture.supplyAsync(() -> forClass(serviceInterface), executor)
+                        .thenCompose(loader -> loader.warmUp(executor, elapsedTimes)))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(futures).join();
+        return elapsedTimes;
+    }
+
+    private CompletableFuture<Void> warmUp(Executor executor, Map<String, Duration> elapsedTimes) {
+        CompletableFuture<?>[] futures = getSpiNames().stream()
+                .map(name -> CompletableFuture.runAsync(() -> {
+                    long start = System.nanoTime();
+                    if (SpiScope.SINGLETON == scope) {
+                        createSingleton(name);
+                    } else {
+                        getInstanceFactory(name);
+                    }
+                    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+                    elapsedTimes.put(serviceInterface.getName() + "#" + name, elapsed);
+                    log.info("Warmed up the service implementation [{}] of [{}] in {}ms",
+                            name, serviceInterface.getName(), elapsed.toNanos() / 1_000_000D);
+                }, executor))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures);
+    }
+
+    /**
+     * Get the instance factory by SPI name, the service implementation class is loaded and initialized here in lazy mode
+     *
+     * @param name SPI name
+     * @return instance factory or null if not found
+     */
+    private Supplier<T> getInstanceFactory(String name) {
+        Supplier<T> factory = instanceFactories.get(name);
+        if (factory != null || !lazy) {
+            return factory;
+        }
+        if (!serviceImplClasses.containsKey(name) && !unloadedImplClassNames.containsKey(name)) {
+            return null;
+        }
+        synchronized (getLock(name)) {
+            factory = instanceFactories.get(name);
+            if (factory != null) {
+                return factory;
+            }
+            Class<T> implClass = serviceImplClasses.get(name);
+            if (implClass == null) {
+                String implClassName = unloadedImplClassNames.get(name);
+                if (implClassName == null) {
+                    return null;
+                }
+                try {
+                    implClass = forName(implClassName, true);
+                } catch (ClassNotFoundException e) {
+                    throw new RuntimeException("Failed to load the spi class: " + implClassName, e);
+                }
+                Validate.isTrue(serviceInterface.isAssignableFrom(implClass),
+                        implClass.getName() + " must be the implementation of " + serviceInterface.getName());
+                serviceImplClasses.put(name, implClass);
+                unloadedImplClassNames.remove(name);
+                log.debug("Loaded the service instance [{}]", implClassName);
+            }
+            factory = createInstanceFactory(implClass);
+            instanceFactories.put(name, factory);
+        }
+        return factory;
+    }
+
+    private T createSingleton(String name) {
         T obj = singletonInstances.get(name);
         if (obj != null) {
             return obj;
         }
 
-        Class<T> clz = serviceImplClasses.get(name);
-        if (clz == null) {
+        Supplier<T> factory = getInstanceFactory(name);
+        if (factory == null) {
             return null;
         }
 
-        synchronized (singletonInstances) {
+        synchronized (getLock(name)) {
             obj = singletonInstances.get(name);
             if (obj != null) {
                 return obj;
             }
-            obj = clz.getDeclaredConstructor().newInstance();
+            obj = factory.get();
             singletonInstances.put(name, obj);
         }
         return obj;
     }
 
-    private T createPrototype(String name) throws IllegalAccessException, InstantiationException, NoSuchMethodException, InvocationTargetException {
-        Class<T> clz = serviceImplClasses.get(name);
-        if (clz == null) {
-            return null;
-        }
-        return clz.getDeclaredConstructor().newInstance();
+    private Object getLock(String name) {
+        return locks.computeIfAbsent(name, key -> new Object());
+    }
+
+    private T createPrototype(String name) {
+        Supplier<T> factory = getInstanceFactory(name);
+        return factory != null ? factory.get() : null;
     }
 }
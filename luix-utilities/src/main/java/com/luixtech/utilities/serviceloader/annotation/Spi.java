@@ -12,4 +12,12 @@ public @interface Spi {
 
     SpiScope scope() default SpiScope.SINGLETON;
 
+    /**
+     * Load and initialize the service implementation classes on the first use instead of while creating the service loader.
+     * The indexed implementation classes are not loaded at all until being used.
+     *
+     * @return true: lazy mode, false: eager mode
+     */
+    boolean lazy() default false;
+
 }
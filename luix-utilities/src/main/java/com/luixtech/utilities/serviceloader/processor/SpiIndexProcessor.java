@@ -0,0 +1,227 @@
+package com.luixtech.utilities.serviceloader.processor;
+
+import com.luixtech.utilities.serviceloader.ServiceLoader;
+import com.luixtech.utilities.serviceloader.annotation.Spi;
+import com.luixtech.utilities.serviceloader.annotation.SpiName;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Annotation processor used to generate the SPI index files read by {@link ServiceLoader}.
+ * <p>
+ * The implementation classes listed in the META-INF/services configuration file of each service interface annotated
+ * with {@link Spi} are validated and indexed under META-INF/spi-index/{service interface name}. Each index file contains
+ * the SPI name to implementation class name mappings, e.g.
+ * <pre>
+ * failover=com.luixtech.rpc.cluster.FailoverStrategy
+ * </pre>
+ * The compilation fails if a listed class can NOT be found, is NOT a public concrete implementation with a public
+ * no-args constructor, or if the SPI names are duplicated, so the index always registers the same implementations as
+ * the configuration file, which is ignored by {@link ServiceLoader} once the jar contains the index file.
+ * The implementations NOT listed in the configuration file are never registered.
+ * <p>
+ * The configuration files are read from the class output directory, into which the resources are copied before the
+ * compilation by maven, or the source path otherwise. The processor must be declared explicitly, e.g. by adding
+ * luix-utilities to the annotationProcessorPaths of maven-compiler-plugin.
+ */
+@SupportedAnnotationTypes("*")
+public class SpiIndexProcessor extends AbstractProcessor {
+    private static final String           SERVICE_DIR_PREFIX = "META-INF/services/";
+    /**
+     * Service interfaces declared or implemented by the compiled classes
+     */
+    private final        Set<TypeElement> serviceInterfaces  = new LinkedHashSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeIndexes();
+            return false;
+        }
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            processType(type);
+        }
+        // Do NOT claim the annotations, other processors may need them
+        return false;
+    }
+
+    private void processType(TypeElement type) {
+        for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+            processType(nested);
+        }
+        if (type.getKind() == ElementKind.INTERFACE && type.getAnnotation(Spi.class) != null) {
+            serviceInterfaces.add(type);
+        }
+        collectServiceInterfaces(type.asType(), serviceInterfaces);
+    }
+
+    private void collectServiceInterfaces(TypeMirror typeMirror, Set<TypeElement> serviceInterfaces) {
+        for (TypeMirror superType : processingEnv.getTypeUtils().directSupertypes(typeMirror)) {
+            if (superType.getKind() != TypeKind.DECLARED) {
+                continue;
+            }
+            TypeElement superElement = (TypeElement) ((DeclaredType) superType).asElement();
+            if (superElement.getKind() == ElementKind.INTERFACE && superElement.getAnnotation(Spi.class) != null) {
+                serviceInterfaces.add(superElement);
+            }
+            collectServiceInterfaces(superType, serviceInterfaces);
+        }
+    }
+
+    private void writeIndexes() {
+        for (TypeElement serviceInterface : serviceInterfaces) {
+            String serviceInterfaceName = processingEnv.getElementUtils().getBinaryName(serviceInterface).toString();
+            List<String> implClassNames = readServiceConfigFile(serviceInterfaceName);
+            if (implClassNames == null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, "No " + SERVICE_DIR_PREFIX
+                        + serviceInterfaceName + " found, skipped generating the spi index file", serviceInterface);
+                continue;
+            }
+            Map<String, String> index = createIndex(serviceInterface, implClassNames);
+            if (index != null) {
+                writeIndex(ServiceLoader.SPI_INDEX_DIR_PREFIX.concat(serviceInterfaceName), index);
+            }
+        }
+    }
+
+    /**
+     * Read the service implementation class names of the service configuration file
+     *
+     * @param serviceInterfaceName service interface name
+     * @return service implementation class names, or null if the file does NOT exist
+     */
+    private List<String> readServiceConfigFile(String serviceInterfaceName) {
+        String serviceFileName = SERVICE_DIR_PREFIX.concat(serviceInterfaceName);
+        for (StandardLocation location : List.of(StandardLocation.CLASS_OUTPUT, StandardLocation.SOURCE_PATH)) {
+            List<String> implClassNames = new ArrayList<>();
+            try {
+                FileObject file = processingEnv.getFiler().getResource(location, "", serviceFileName);
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(file.openInputStream(),
+                        ServiceLoader.SERVICE_CONFIG_FILE_CHARSET))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int poundSignIdx = line.indexOf('#');
+                        // Same format as ServiceLoader#readLine
+                        line = (poundSignIdx >= 0 ? line.substring(0, poundSignIdx) : line).trim();
+                        if (!line.isEmpty() && !implClassNames.contains(line)) {
+                            implClassNames.add(line);
+                        }
+                    }
+                }
+                return implClassNames;
+            } catch (IOException | IllegalArgumentException e) {
+                // Not found at the location
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Validate the listed implementation classes and create the index
+     *
+     * @param serviceInterface service interface
+     * @param implClassNames   service implementation class names listed in the service configuration file
+     * @return SPI name to service implementation class name map, or null if any class is invalid
+     */
+    private Map<String, String> createIndex(TypeElement serviceInterface, List<String> implClassNames) {
+        Map<String, String> index = new TreeMap<>();
+        boolean valid = true;
+        for (String implClassName : implClassNames) {
+            TypeElement type = processingEnv.getElementUtils().getTypeElement(implClassName.replace('$', '.'));
+            String error = type == null ? "can NOT be found" : validateImplClass(type, serviceInterface);
+            if (error != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, implClassName + " listed in "
+                        + SERVICE_DIR_PREFIX + serviceInterface.getQualifiedName() + " " + error, serviceInterface);
+                valid = false;
+                continue;
+            }
+            String spiName = getSpiServiceName(type);
+            String existing = index.putIfAbsent(spiName, implClassName);
+            if (existing != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                        "Found duplicated SPI name: " + spiName + " for " + implClassName + " and " + existing, type);
+                valid = false;
+            }
+        }
+        return valid ? index : null;
+    }
+
+    /**
+     * Same rules as ServiceLoader#checkServiceImplClass
+     *
+     * @param type             service implementation type
+     * @param serviceInterface service interface
+     * @return error message, or null if valid
+     */
+    private String validateImplClass(TypeElement type, TypeElement serviceInterface) {
+        if (type.getKind() != ElementKind.CLASS || type.getModifiers().contains(Modifier.ABSTRACT)) {
+            return "must be a concrete class";
+        }
+        if (!type.getModifiers().contains(Modifier.PUBLIC)) {
+            return "must be public";
+        }
+        if (!processingEnv.getTypeUtils().isAssignable(processingEnv.getTypeUtils().erasure(type.asType()),
+                processingEnv.getTypeUtils().erasure(serviceInterface.asType()))) {
+            return "must be the implementation of " + serviceInterface.getQualifiedName();
+        }
+        if (!hasPublicNoArgConstructor(type)) {
+            return "has no public no-args constructor";
+        }
+        return null;
+    }
+
+    private boolean hasPublicNoArgConstructor(TypeElement type) {
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getModifiers().contains(Modifier.PUBLIC) && constructor.getParameters().isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Same rule as {@link ServiceLoader#getSpiServiceName(Class)}
+     *
+     * @param type service implementation type
+     * @return SPI service name
+     */
+    private String getSpiServiceName(TypeElement type) {
+        SpiName spiName = type.getAnnotation(SpiName.class);
+        return spiName != null && !spiName.value().isEmpty() ? spiName.value() : type.getSimpleName().toString();
+    }
+
+    private void writeIndex(String indexFileName, Map<String, String> index) {
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", indexFileName);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(file.openOutputStream(),
+                    ServiceLoader.SERVICE_CONFIG_FILE_CHARSET))) {
+                writer.write("# Generated by " + SpiIndexProcessor.class.getName() + ", do NOT edit it manually.\n");
+                for (Map.Entry<String, String> implClassName : index.entrySet()) {
+                    writer.write(implClassName.getKey() + "=" + implClassName.getValue() + "\n");
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Failed to write the spi index file " + indexFileName + ": " + e.getMessage());
+        }
+    }
+}
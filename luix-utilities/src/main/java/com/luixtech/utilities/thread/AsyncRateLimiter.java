@@ -0,0 +1,235 @@
+package com.luixtech.utilities.thread;
+
+import org.apache.commons.lang3.Validate;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.Iterator;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Non-blocking counterpart of {@link RateLimiter}.
+ * <p>
+ * Instead of blocking the calling thread, {@link #acquire(int)} returns a {@link CompletableFuture} which is completed
+ * by the executor when the permits become available, so no executor thread or carrier thread of a virtual thread is
+ * held while waiting. The waits are scheduled by {@link CompletableFuture#delayedExecutor(long, TimeUnit, Executor)},
+ * and the dependent stages run on the executor, which is the default async pool of {@link CompletableFuture}
+ * (normally the common pool) unless specified. The future is completed in the calling thread if the permits are
+ * available immediately.
+ * <p>
+ * The permits are shared with the underlying rate limiter, so the synchronous and the asynchronous callers can be
+ * mixed.
+ */
+@ThreadSafe
+public final class AsyncRateLimiter {
+    private final RateLimiter rateLimiter;
+    private final Executor    executor;
+
+    public AsyncRateLimiter(long maxPermitsPerSecond) {
+        this(new RateLimiter(maxPermitsPerSecond));
+    }
+
+    public AsyncRateLimiter(RateLimiter rateLimiter) {
+        this(rateLimiter, new CompletableFuture<Void>().defaultExecutor());
+    }
+
+    /**
+     * @param rateLimiter rate limiter
+     * @param executor    executor used to complete the futures and run the dependent stages after waiting
+     */
+    public AsyncRateLimiter(RateLimiter rateLimiter, Executor executor) {
+        Validate.notNull(rateLimiter, "Rate limiter must not be null!");
+        Validate.notNull(executor, "Executor must not be null!");
+        this.rateLimiter = rateLimiter;
+        this.executor = executor;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Acquire a permit asynchronously
+     *
+     * @return future completed when the permit is available
+     */
+    public CompletableFuture<Void> acquire() {
+        return acquire(1);
+    }
+
+    /**
+     * Acquire the permits asynchronously
+     *
+     * @param permits number of permits
+     * @return future completed when the permits are available
+     */
+    public CompletableFuture<Void> acquire(int permits) {
+        return acquire(permits, executor);
+    }
+
+    /**
+     * Acquire the permits asynchronously, and complete the future by the specified executor after waiting
+     *
+     * @param permits  number of permits
+     * @param executor executor used to complete the future
+     * @return future completed when the permits are available
+     */
+    public CompletableFuture<Void> acquire(int permits, Executor executor) {
+        Validate.notNull(executor, "Executor must not be null!");
+        long waitNanos = rateLimiter.reserve(permits, Long.MAX_VALUE);
+        if (waitNanos == 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        schedule(() -> future.complete(null), waitNanos, executor, future);
+        return future;
+    }
+
+    /**
+     * Acquire the permits only if they can be available within the timeout
+     *
+     * @param permits number of permits
+     * @param timeout maximum time to wait
+     * @param unit    time unit of the timeout
+     * @return future completed with true when the permits are available, or completed with false immediately
+     * if the permits can NOT be available within the timeout
+     */
+    public CompletableFuture<Boolean> tryAcquire(int permits, long timeout, TimeUnit unit) {
+        long waitNanos = rateLimiter.reserve(permits, Math.max(unit.toNanos(timeout), 0));
+        if (waitNanos <= 0) {
+            return CompletableFuture.completedFuture(waitNanos == 0);
+        }
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        schedule(() -> future.complete(true), waitNanos, executor, future);
+        return future;
+    }
+
+    /**
+     * Run the task by the executor after the delay, and fail the future if the executor rejects the task,
+     * otherwise the rejection would be swallowed by the delayer thread of {@link CompletableFuture}
+     */
+    private static void schedule(Runnable task, long delayNanos, Executor executor, CompletableFuture<?> future) {
+        CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, command -> {
+            try {
+                executor.execute(command);
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }).execute(task);
+    }
+
+    /**
+     * Run the action with a permit
+     *
+     * @param action action returning a future
+     * @param <T>    result type
+     * @return future of the action result
+     */
+    public <T> CompletableFuture<T> execute(Callable<? extends CompletionStage<T>> action) {
+        return acquire().thenCompose(v -> {
+            try {
+                return action.call();
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+    }
+
+    /**
+     * Apply the action to each item with a permit per item, no thread is held while waiting for the permits.
+     * The items are consumed one by one, and the next item is NOT consumed until its permit is available,
+     * the iteration continues on the executor after waiting.
+     * The returned future fails with the first failure of the actions, and no more items are consumed after that.
+     *
+     * @param items  items
+     * @param action action applied to the item, the returned stage is completed when the item is processed
+     * @param <T>    item type
+     * @return future completed when all the items are processed
+     */
+    public <T> CompletableFuture<Void> forEach(Iterator<? extends T> items,
+                                               Function<? super T, ? extends CompletionStage<?>> action) {
+        Validate.notNull(items, "Items must not be null!");
+        Validate.notNull(action, "Action must not be null!");
+        IteratorDriver<T> driver = new IteratorDriver<>(items, action);
+        driver.run();
+        return driver.result;
+    }
+
+    /**
+     * Apply the action to each item of the stream with a permit per item, see {@link #forEach(Iterator, Function)}.
+     * Note that the iterator of a stream may pull the next item from the source in hasNext().
+     *
+     * @param items  stream of items, it is closed after all the items are processed
+     * @param action action applied to the item
+     * @param <T>    item type
+     * @return future completed when all the items are processed
+     */
+    public <T> CompletableFuture<Void> forEach(Stream<? extends T> items,
+                                               Function<? super T, ? extends CompletionStage<?>> action) {
+        Validate.notNull(items, "Items must not be null!");
+        return forEach(items.iterator(), action).whenComplete((v, t) -> items.close());
+    }
+
+    private class IteratorDriver<T> implements Runnable {
+        private final Iterator<? extends T>                             items;
+        private final Function<? super T, ? extends CompletionStage<?>> action;
+        private final CompletableFuture<Void>                           result  = new CompletableFuture<>();
+        /**
+         * Number of the running actions plus one for the iteration itself
+         */
+        private final AtomicInteger                                     pending = new AtomicInteger(1);
+        /**
+         * Indicates whether the permit of the next item has been reserved, only accessed by the thread driving the iteration
+         */
+        private       boolean                                           permitReserved;
+
+        private IteratorDriver(Iterator<? extends T> items, Function<? super T, ? extends CompletionStage<?>> action) {
+            this.items = items;
+            this.action = action;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (permitReserved) {
+                    permitReserved = false;
+                    if (!result.isDone()) {
+                        // hasNext() has been checked before reserving the permit
+                        start(items.next());
+                    }
+                }
+                while (!result.isDone() && items.hasNext()) {
+                    long waitNanos = rateLimiter.reserve(1, Long.MAX_VALUE);
+                    if (waitNanos > 0) {
+                        // Consume the next item on the executor when the permit is available
+                        permitReserved = true;
+                        schedule(this, waitNanos, executor, result);
+                        return;
+                    }
+                    start(items.next());
+                }
+                complete();
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }
+
+        private void start(T item) {
+            pending.incrementAndGet();
+            action.apply(item).whenComplete((r, t) -> {
+                if (t != null) {
+                    result.completeExceptionally(t);
+                }
+                complete();
+            });
+        }
+
+        private void complete() {
+            if (pending.decrementAndGet() == 0) {
+                result.complete(null);
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.luixtech.utilities.thread;
+
+import org.apache.commons.lang3.Validate;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Executor coalescing the individual calls of the downstream system into batches, e.g. single row lookups or writes.
+ * <p>
+ * The submitted keys are collected into a pending batch, which is flushed to the batch function when it contains
+ * maxBatchSize keys, or maxDelay after the first key is submitted. The batch function is executed by the executor,
+ * e.g. a {@link com.luixtech.utilities.thread.pool.NetworkThreadPoolExecutor}, and each caller gets the value of
+ * its key by the returned {@link CompletableFuture}. The same keys in a batch are coalesced into one.
+ * <p>
+ * The executor must either run or reject each batch by an exception, otherwise the futures of a silently discarded
+ * batch are never completed, so the thread pools discarding the rejected tasks are NOT accepted. The batches flushed
+ * after the delay are never executed by the shared scheduler thread: the batch which the executor runs in the calling
+ * thread, e.g. by {@link ThreadPoolExecutor.CallerRunsPolicy}, is executed by a new virtual thread instead.
+ * <p>
+ * The number of the keys which are submitted but NOT completed is limited by maxPendingCount, the callers
+ * are blocked or rejected when the limit is reached, so the submissions can NOT outrun a slow downstream system.
+ * <pre>
+ * BatchingExecutor&lt;Long, User&gt; executor = new BatchingExecutor&lt;&gt;(ids -> userRepository.findByIds(ids), networkExecutor);
+ * CompletableFuture&lt;User&gt; user = executor.submit(1L);
+ * </pre>
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+@ThreadSafe
+public class BatchingExecutor<K, V> implements AutoCloseable {
+    public static final  int                                DEFAULT_MAX_BATCH_SIZE    = 100;
+    public static final  long                               DEFAULT_MAX_DELAY_MICROS  = 2000;
+    public static final  int                                DEFAULT_MAX_PENDING_COUNT = 10_000;
+    /**
+     * Scheduler shared by all the instances, it only triggers the flushes and never executes the batch function
+     */
+    private static final ScheduledExecutorService           SCHEDULER                 = createScheduler();
+    private final        Function<List<K>, Map<K, V>>       batchFunction;
+    private final        Executor                           executor;
+    private final        int                                maxBatchSize;
+    private final        long                               maxDelayNanos;
+    private final        int                                maxPendingCount;
+    private final        Semaphore                          pendingPermits;
+    private final        ReentrantLock                      lock                      = new ReentrantLock();
+    private final        LongAdder                          batchCount                = new LongAdder();
+    /**
+     * Futures of the pending batch by key, null if no key is pending
+     */
+    private              Map<K, List<CompletableFuture<V>>> batch;
+    /**
+     * Scheduled flush of the pending batch, which is cancelled if the batch is flushed for the size
+     */
+    private              ScheduledFuture<?>                 flushTask;
+    private volatile     boolean                            closed;
+
+    public BatchingExecutor(Function<List<K>, Map<K, V>> batchFunction, Executor executor) {
+        this(batchFunction, executor, DEFAULT_MAX_BATCH_SIZE, DEFAULT_MAX_DELAY_MICROS, TimeUnit.MICROSECONDS, DEFAULT_MAX_PENDING_COUNT);
+    }
+
+    /**
+     * @param batchFunction   function returning the values by key of a batch, the keys without value are completed with null
+     * @param executor        executor of the batch function, which must NOT discard the rejected tasks silently
+     * @param maxBatchSize    maximum key count of a batch
+     * @param maxDelay        maximum time from the first key submitted to the batch flushed
+     * @param unit            time unit of the maxDelay
+     * @param maxPendingCount maximum count of the submitted but NOT completed keys
+     */
+    public BatchingExecutor(Function<List<K>, Map<K, V>> batchFunction, Executor executor, int maxBatchSize,
+                            long maxDelay, TimeUnit unit, int maxPendingCount) {
+        Validate.notNull(batchFunction, "Batch function must not be null!");
+        Validate.notNull(executor, "Executor must not be null!");
+        Validate.isTrue(!isDiscarding(executor), "Executor must NOT discard the rejected tasks silently!");
+        Validate.isTrue(maxBatchSize > 0, "maxBatchSize must be greater than 0");
+        Validate.isTrue(maxDelay >= 0, "maxDelay must NOT be negative");
+        Validate.isTrue(maxPendingCount >= maxBatchSize, "maxPendingCount must NOT be less than maxBatchSize");
+        this.batchFunction = batchFunction;
+        this.executor = executor;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.maxPendingCount = maxPendingCount;
+        this.pendingPermits = new Semaphore(maxPendingCount);
+    }
+
+    private static ScheduledExecutorService createScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, SchedulerThread::new);
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    private static boolean isDiscarding(Executor executor) {
+        return executor instanceof ThreadPoolExecutor threadPool
+                && (threadPool.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.DiscardPolicy
+                || threadPool.getRejectedExecutionHandler() instanceof ThreadPoolExecutor.DiscardOldestPolicy);
+    }
+
+    /**
+     * Submit the key, and wait if the pending count reaches the limit
+     *
+     * @param key key
+     * @return future of the value
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public CompletableFuture<V> submit(K key) throws InterruptedException {
+        pendingPermits.acquire();
+        return enqueue(key);
+    }
+
+    /**
+     * Submit the key, and wait for the timeout at most if the pending count reaches the limit
+     *
+     * @param key     key
+     * @param timeout maximum time to wait, 0 to reject immediately
+     * @param unit    time unit of the timeout
+     * @return future of the value
+     * @throws RejectedExecutionException if the pending count still reaches the limit after the timeout
+     * @throws InterruptedException       if interrupted while waiting
+     */
+    public CompletableFuture<V> trySubmit(K key, long timeout, TimeUnit unit) throws InterruptedException {
+        if (!pendingPermits.tryAcquire(timeout, unit)) {
+            throw new RejectedExecutionException("Too many pending keys of the batching executor");
+        }
+        return enqueue(key);
+    }
+
+    private CompletableFuture<V> enqueue(K key) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        Map<K, List<CompletableFuture<V>>> full = null;
+        ScheduledFuture<?> cancelled = null;
+        lock.lock();
+        try {
+            if (closed) {
+                pendingPermits.release();
+                throw new RejectedExecutionException("Can NOT submit a key after the batching executor closed!");
+            }
+            if (batch == null) {
+                batch = new LinkedHashMap<>();
+                Map<K, List<CompletableFuture<V>>> scheduled = batch;
+                flushTask = SCHEDULER.schedule(() -> flush(scheduled), maxDelayNanos, TimeUnit.NANOSECONDS);
+            }
+            batch.computeIfAbsent(key, k -> new ArrayList<>(1)).add(future);
+            if (batch.size() >= maxBatchSize) {
+                full = batch;
+                cancelled = flushTask;
+                batch = null;
+                flushTask = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (full != null) {
+            cancelled.cancel(false);
+            dispatch(full);
+        }
+        return future;
+    }
+
+    /**
+     * Flush the batch if it is still pending
+     */
+    private void flush(Map<K, List<CompletableFuture<V>>> scheduled) {
+        lock.lock();
+        try {
+            if (batch != scheduled) {
+                // Already flushed for the size
+                return;
+            }
+            batch = null;
+            flushTask = null;
+        } finally {
+            lock.unlock();
+        }
+        dispatch(scheduled);
+    }
+
+    private void dispatch(Map<K, List<CompletableFuture<V>>> futures) {
+        batchCount.increment();
+        try {
+            executor.execute(() -> {
+                if (Thread.currentThread() instanceof SchedulerThread) {
+                    // Run in the scheduler thread by the executor, which must NOT be blocked by the batch function
+                    Thread.ofVirtual().name("batching-executor-flush").start(() -> execute(futures));
+                } else {
+                    execute(futures);
+                }
+            });
+        } catch (Throwable t) {
+            complete(futures, null, t);
+        }
+    }
+
+    private void execute(Map<K, List<CompletableFuture<V>>> futures) {
+        Map<K, V> values;
+        try {
+            values = batchFunction.apply(new ArrayList<>(futures.keySet()));
+        } catch (Throwable t) {
+            complete(futures, null, t);
+            return;
+        }
+        complete(futures, values, null);
+    }
+
+    private void complete(Map<K, List<CompletableFuture<V>>> futures, Map<K, V> values, Throwable t) {
+        int count = 0;
+        for (List<CompletableFuture<V>> keyFutures : futures.values()) {
+            count += keyFutures.size();
+        }
+        // Release before completing, so the callers can submit again once they get the values
+        pendingPermits.release(count);
+        for (Map.Entry<K, List<CompletableFuture<V>>> entry : futures.entrySet()) {
+            V value = t == null && values != null ? values.get(entry.getKey()) : null;
+            for (CompletableFuture<V> future : entry.getValue()) {
+                if (t == null) {
+                    future.complete(value);
+                } else {
+                    future.completeExceptionally(t);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the count of the submitted but NOT completed keys
+     *
+     * @return pending count
+     */
+    public int getPendingCount() {
+        return maxPendingCount - pendingPermits.availablePermits();
+    }
+
+    /**
+     * Get the count of the dispatched batches
+     *
+     * @return batch count
+     */
+    public long getBatchCount() {
+        return batchCount.sum();
+    }
+
+    /**
+     * Flush the pending batch and reject the subsequent submissions, the dispatched batches are NOT waited
+     */
+    @Override
+    public void close() {
+        Map<K, List<CompletableFuture<V>>> pending;
+        ScheduledFuture<?> cancelled;
+        lock.lock();
+        try {
+            closed = true;
+            pending = batch;
+            cancelled = flushTask;
+            batch = null;
+            flushTask = null;
+        } finally {
+            lock.unlock();
+        }
+        if (pending != null) {
+            cancelled.cancel(false);
+            dispatch(pending);
+        }
+    }
+
+    private static final class SchedulerThread extends Thread {
+        private SchedulerThread(Runnable task) {
+            super(task, "batching-executor-scheduler");
+            setDaemon(true);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.luixtech.utilities.thread;
+
+import org.apache.commons.lang3.Validate;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.function.Supplier;
+
+/**
+ * Rate limiter with a separate limit per key, e.g. per tenant or per user.
+ * <p>
+ * Each key is limited by GCRA the same way as {@link RateLimiter}, and its whole state is a single long,
+ * the theoretical arrival time of its next permit. The keys are spread over lock striped open addressing tables
+ * which store the keys and the states in two parallel arrays, so there is no entry object per key.
+ * <p>
+ * A key whose theoretical arrival time has passed is idle, and it behaves exactly the same as an absent key,
+ * so the idle keys are evicted without changing the limiting result. They are evicted before a table grows,
+ * or explicitly by {@link #evictIdleKeys()}. The number of the keys is bounded by maxKeys, if a table is full of
+ * the active keys, a new key replaces the key occupying its slot, which resets the limit of the replaced key.
+ *
+ * @param <K> key type
+ */
+@ThreadSafe
+public final class KeyedRateLimiter<K> {
+    private static final int         STRIPES          = 64;
+    private static final int         INITIAL_CAPACITY = 16;
+    private static final long        NANOS_PER_SECOND = 1_000_000_000L;
+    /**
+     * Start time used to keep the states positive
+     */
+    private final        long        startNanos       = System.nanoTime();
+    private final        long        intervalNanos;
+    private final        long        burstToleranceNanos;
+    private final        Supplier<K> keySupplier;
+    private final        Stripe[]    stripes;
+
+    /**
+     * Create a keyed rate limiter
+     *
+     * @param maxPermitsPerSecond maximum permits per second of each key, or -1 (infinite)
+     * @param maxBurstPermits     maximum permits of each key can be acquired at once after being idle
+     * @param maxKeys             maximum number of keys kept in memory
+     * @param keySupplier         supplier of the key used by {@link #tryAcquire()}, null if not used
+     */
+    public KeyedRateLimiter(long maxPermitsPerSecond, int maxBurstPermits, int maxKeys, Supplier<K> keySupplier) {
+        Validate.isTrue(maxPermitsPerSecond == -1 || (maxPermitsPerSecond > 0 && maxPermitsPerSecond <= NANOS_PER_SECOND),
+                "maxPermitsPerSecond must be positive or -1 (infinite)");
+        Validate.isTrue(maxBurstPermits > 0, "maxBurstPermits must be greater than 0");
+        Validate.isTrue(maxKeys >= STRIPES, "maxKeys must NOT be less than " + STRIPES);
+
+        this.intervalNanos = maxPermitsPerSecond == -1 ? 0 : Math.round((double) NANOS_PER_SECOND / maxPermitsPerSecond);
+        this.burstToleranceNanos = intervalNanos * maxBurstPermits;
+        this.keySupplier = keySupplier;
+        this.stripes = new Stripe[STRIPES];
+        // Keep the load factor of the full table under 0.75
+        int maxTableLength = Integer.highestOneBit(Math.max(INITIAL_CAPACITY, maxKeys / STRIPES * 4 / 3 - 1)) << 1;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(maxKeys / STRIPES, maxTableLength);
+        }
+    }
+
+    /**
+     * Create a rate limiter per tenant, the key is the tenant of {@link TenantThreadContextHolder}
+     *
+     * @param maxPermitsPerSecond maximum permits per second of each tenant, or -1 (infinite)
+     * @param maxBurstPermits     maximum permits of each tenant can be acquired at once after being idle
+     * @param maxTenants          maximum number of tenants kept in memory
+     * @return keyed rate limiter
+     */
+    public static KeyedRateLimiter<String> perTenant(long maxPermitsPerSecond, int maxBurstPermits, int maxTenants) {
+        return new KeyedRateLimiter<>(maxPermitsPerSecond, maxBurstPermits, maxTenants, TenantThreadContextHolder::getTenant);
+    }
+
+    /**
+     * Acquire a permit of the key provided by the key supplier if it is available immediately
+     *
+     * @return true if the permit is acquired
+     */
+    public boolean tryAcquire() {
+        Validate.validState(keySupplier != null, "No key supplier specified!");
+        return tryAcquire(keySupplier.get(), 1);
+    }
+
+    /**
+     * Acquire a permit of the key if it is available immediately
+     *
+     * @param key key
+     * @return true if the permit is acquired
+     */
+    public boolean tryAcquire(K key) {
+        return tryAcquire(key, 1);
+    }
+
+    /**
+     * Acquire the permits of the key if they are available immediately
+     *
+     * @param key     key
+     * @param permits number of permits
+     * @return true if the permits are acquired
+     */
+    public boolean tryAcquire(K key, int permits) {
+        Validate.notNull(key, "Key must not be null!");
+        Validate.isTrue(permits > 0, "permits must be greater than 0");
+        if (intervalNanos == 0) {
+            // Unlimited speed
+            return true;
+        }
+        int hash = spread(key.hashCode());
+        long cost = intervalNanos * permits;
+        return stripes[hash >>> 26].tryAcquire(key, hash, now(), cost, Math.max(burstToleranceNanos, cost));
+    }
+
+    /**
+     * Evict all the idle keys
+     *
+     * @return number of the evicted keys
+     */
+    public int evictIdleKeys() {
+        int evicted = 0;
+        long now = now();
+        for (Stripe stripe : stripes) {
+            evicted += stripe.evictIdleKeys(now);
+        }
+        return evicted;
+    }
+
+    /**
+     * Get the number of the keys kept in memory
+     *
+     * @return number of the keys
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private long now() {
+        return System.nanoTime() - startNanos + 1;
+    }
+
+    private static int spread(int h) {
+        // The high 6 bits select the stripe and the low bits select the slot
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Stripe {
+        private final int      maxSize;
+        private final int      maxTableLength;
+        private       Object[] keys;
+        /**
+         * Theoretical arrival time of the next permit of each key
+         */
+        private       long[]   states;
+        private       int      size;
+        private       int      insertsSinceRehash;
+
+        private Stripe(int maxSize, int maxTableLength) {
+            this.maxSize = maxSize;
+            this.maxTableLength = maxTableLength;
+            this.keys = new Object[INITIAL_CAPACITY];
+            this.states = new long[INITIAL_CAPACITY];
+        }
+
+        private synchronized boolean tryAcquire(Object key, int hash, long now, long cost, long tolerance) {
+            int mask = keys.length - 1;
+            int i = hash & mask;
+            Object k;
+            while ((k = keys[i]) != null) {
+                if (k.equals(key)) {
+                    long state = Math.max(states[i], now) + cost;
+                    if (state - now > tolerance) {
+                        return false;
+                    }
+                    states[i] = state;
+                    return true;
+                }
+                i = (i + 1) & mask;
+            }
+            // New key, the permits are always available
+            insertsSinceRehash++;
+            if (isCrowded()) {
+                if (!makeRoom(now)) {
+                    // Replace the key occupying the home slot, or do NOT track the key if the home slot is empty,
+                    // otherwise the table may be filled up without being counted
+                    i = hash & (keys.length - 1);
+                    if (keys[i] != null) {
+                        keys[i] = key;
+                        states[i] = now + cost;
+                    }
+                    return true;
+                }
+                i = findEmptySlot(keys, hash);
+            }
+            keys[i] = key;
+            states[i] = now + cost;
+            size++;
+            return true;
+        }
+
+        private boolean isCrowded() {
+            return size + 1 > keys.length * 3 / 4 || size >= maxSize;
+        }
+
+        /**
+         * Evict the idle keys, and grow the table if it is still crowded
+         *
+         * @return true if there is room for a new key
+         */
+        private boolean makeRoom(long now) {
+            if (insertsSinceRehash >= size / 4) {
+                // The cost of scanning the table is amortized over the insertions since the last rehash
+                rehash(keys.length, now);
+            }
+            if (isCrowded() && keys.length < maxTableLength) {
+                rehash(keys.length << 1, now);
+            }
+            return !isCrowded();
+        }
+
+        private synchronized int evictIdleKeys(long now) {
+            int oldSize = size;
+            rehash(keys.length, now);
+            return oldSize - size;
+        }
+
+        /**
+         * Copy the active keys to a new table
+         */
+        private void rehash(int length, long now) {
+            Object[] newKeys = new Object[length];
+            long[] newStates = new long[length];
+            int newSize = 0;
+            for (int i = 0; i < keys.length; i++) {
+                Object key = keys[i];
+                if (key != null && states[i] > now) {
+                    int j = findEmptySlot(newKeys, spread(key.hashCode()));
+                    newKeys[j] = key;
+                    newStates[j] = states[i];
+                    newSize++;
+                }
+            }
+            keys = newKeys;
+            states = newStates;
+            size = newSize;
+            insertsSinceRehash = 0;
+        }
+
+        private static int findEmptySlot(Object[] keys, int hash) {
+            int mask = keys.length - 1;
+            int i = hash & mask;
+            while (keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            return i;
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+    }
+}
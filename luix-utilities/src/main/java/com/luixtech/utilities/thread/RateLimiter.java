@@ -0,0 +1,183 @@
+package com.luixtech.utilities.thread;
+
+import org.apache.commons.lang3.Validate;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Rate limiter shared by multiple threads, unlike {@link Throttler} which throttles a single thread.
+ * <p>
+ * It is an implementation of GCRA (generic cell rate algorithm): the whole state is the theoretical arrival time
+ * of the next permit, which is updated by CAS on a single {@link AtomicLong} without any lock.
+ * Each permit moves the theoretical arrival time forward by the emission interval (1 second / rate),
+ * and a request is admitted if the theoretical arrival time does not exceed the current time
+ * by more than the burst tolerance.
+ * <p>
+ * The emission interval is rounded to whole nanoseconds, so the error is less than 0.1% for rates up to 1M permits
+ * per second.
+ */
+@ThreadSafe
+public final class RateLimiter {
+    private static final long       NANOS_PER_SECOND = 1_000_000_000L;
+    /**
+     * Start time used to keep the state non-negative
+     */
+    private final        long       startNanos       = System.nanoTime();
+    /**
+     * Theoretical arrival time of the next permit relative to the start time, in nanoseconds
+     */
+    private final        AtomicLong theoreticalArrivalNanos;
+    private volatile     long       intervalNanos;
+    private volatile     long       burstToleranceNanos;
+    private volatile     long       maxPermitsPerSecond;
+    private volatile     int        maxBurstPermits;
+
+    /**
+     * Create a rate limiter without burst
+     *
+     * @param maxPermitsPerSecond maximum permits per second, or -1 (infinite)
+     */
+    public RateLimiter(long maxPermitsPerSecond) {
+        this(maxPermitsPerSecond, 1);
+    }
+
+    /**
+     * Create a rate limiter
+     *
+     * @param maxPermitsPerSecond maximum permits per second, or -1 (infinite)
+     * @param maxBurstPermits     maximum permits can be acquired at once after being idle
+     */
+    public RateLimiter(long maxPermitsPerSecond, int maxBurstPermits) {
+        this.theoreticalArrivalNanos = new AtomicLong(0);
+        setup(maxPermitsPerSecond, maxBurstPermits);
+    }
+
+    public void adjustMaxPermitsPerSecond(long maxPermitsPerSecond) {
+        setup(maxPermitsPerSecond, maxBurstPermits);
+    }
+
+    private void setup(long maxPermitsPerSecond, int maxBurstPermits) {
+        Validate.isTrue(maxPermitsPerSecond == -1 || maxPermitsPerSecond > 0,
+                "maxPermitsPerSecond must be positive or -1 (infinite)");
+        Validate.isTrue(maxBurstPermits > 0, "maxBurstPermits must be greater than 0");
+        Validate.isTrue(maxPermitsPerSecond <= NANOS_PER_SECOND, "maxPermitsPerSecond must NOT be greater than 1000000000");
+
+        long interval = maxPermitsPerSecond == -1 ? 0 : Math.round((double) NANOS_PER_SECOND / maxPermitsPerSecond);
+        this.maxPermitsPerSecond = maxPermitsPerSecond;
+        this.maxBurstPermits = maxBurstPermits;
+        this.intervalNanos = interval;
+        this.burstToleranceNanos = interval * maxBurstPermits;
+    }
+
+    public long getMaxPermitsPerSecond() {
+        return maxPermitsPerSecond;
+    }
+
+    public int getMaxBurstPermits() {
+        return maxBurstPermits;
+    }
+
+    /**
+     * Acquire a permit if it is available immediately
+     *
+     * @return true if the permit is acquired
+     */
+    public boolean tryAcquire() {
+        return tryAcquire(1);
+    }
+
+    /**
+     * Acquire the permits if they are available immediately
+     *
+     * @param permits number of permits
+     * @return true if the permits are acquired
+     */
+    public boolean tryAcquire(int permits) {
+        return reserve(permits, 0) >= 0;
+    }
+
+    /**
+     * Acquire the permits if they can be available within the timeout, waiting if necessary
+     *
+     * @param permits number of permits
+     * @param timeout maximum time to wait
+     * @param unit    time unit of the timeout
+     * @return true if the permits are acquired
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean tryAcquire(int permits, long timeout, TimeUnit unit) throws InterruptedException {
+        long waitNanos = reserve(permits, Math.max(unit.toNanos(timeout), 0));
+        if (waitNanos < 0) {
+            return false;
+        }
+        waitNanos(waitNanos);
+        return true;
+    }
+
+    /**
+     * Acquire a permit, waiting until it is available
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        acquire(1);
+    }
+
+    /**
+     * Acquire the permits, waiting until they are available
+     *
+     * @param permits number of permits
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire(int permits) throws InterruptedException {
+        waitNanos(reserve(permits, Long.MAX_VALUE));
+    }
+
+    /**
+     * Reserve the permits and get the time to wait before using them.
+     * The reservation can NOT be cancelled, so it is made only if the wait time does not exceed the maximum.
+     *
+     * @param permits       number of permits
+     * @param maxWaitNanos  maximum time to wait
+     * @return nanoseconds to wait before the permits are available, or -1 if not reserved
+     */
+    long reserve(int permits, long maxWaitNanos) {
+        Validate.isTrue(permits > 0, "permits must be greater than 0");
+        long interval = intervalNanos;
+        if (interval == 0) {
+            // Unlimited speed
+            return 0;
+        }
+        long cost = interval * permits;
+        long tolerance = burstToleranceNanos;
+        while (true) {
+            long now = System.nanoTime() - startNanos;
+            long tat = theoreticalArrivalNanos.get();
+            long newTat = Math.max(tat, now) + cost;
+            // Allow more permits than the burst tolerance after waiting, otherwise they could never be acquired
+            long waitNanos = newTat - now - Math.max(tolerance, cost);
+            if (waitNanos > maxWaitNanos) {
+                return -1;
+            }
+            if (theoreticalArrivalNanos.compareAndSet(tat, newTat)) {
+                return Math.max(waitNanos, 0);
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void waitNanos(long nanos) throws InterruptedException {
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.luixtech.utilities.thread;
+
+import com.luixtech.utilities.masking.DataMaskingThreadContextHolder;
+import lombok.Getter;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable request context bound to the current thread by {@link ScopedValue}.
+ * <p>
+ * The context is bound for the execution of a task and unbound automatically when the task completes,
+ * so nothing leaks to the next task executed by the same thread and no copy is made when a thread is created.
+ * {@link TenantThreadContextHolder} and {@link DataMaskingThreadContextHolder} read the bound context first and fall
+ * back to their thread local values, which are NOT inherited by the child threads.
+ * The context is immutable within its scope, bind a new one by the withers to change it for a nested scope.
+ * <pre>
+ * RequestContext.of(tenant, true, traceId).run(() -> handle(request));
+ * executor.execute(RequestContext.current().wrap(task));
+ * </pre>
+ */
+@Getter
+public final class RequestContext {
+    private static final ScopedValue<RequestContext> CURRENT = ScopedValue.newInstance();
+    /**
+     * Tenant, null if not specified
+     */
+    private final        String                      tenant;
+    /**
+     * Whether to enable data masking, null if not specified
+     */
+    private final        Boolean                     maskEnabled;
+    /**
+     * Trace id, null if not specified
+     */
+    private final        String                      traceId;
+    /**
+     * Deadline of the request in the time base of {@link System#nanoTime()}, null if not specified
+     */
+    private final        Long                        deadlineNanos;
+
+    private RequestContext(String tenant, Boolean maskEnabled, String traceId, Long deadlineNanos) {
+        this.tenant = tenant;
+        this.maskEnabled = maskEnabled;
+        this.traceId = traceId;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Create a request context
+     *
+     * @param tenant      tenant
+     * @param maskEnabled whether to enable data masking
+     * @param traceId     trace id
+     * @return request context
+     */
+    public static RequestContext of(String tenant, Boolean maskEnabled, String traceId) {
+        return new RequestContext(tenant, maskEnabled, traceId, null);
+    }
+
+    /**
+     * Get the context bound to the current thread
+     *
+     * @return request context, or null if no context is bound
+     */
+    public static RequestContext current() {
+        // ScopedValue.orElse rejects null
+        return CURRENT.isBound() ? CURRENT.get() : null;
+    }
+
+    /**
+     * Create a request context with the specified tenant
+     *
+     * @param tenant tenant
+     * @return new request context
+     */
+    public RequestContext withTenant(String tenant) {
+        return new RequestContext(tenant, maskEnabled, traceId, deadlineNanos);
+    }
+
+    /**
+     * Create a request context with the specified data masking switch
+     *
+     * @param maskEnabled whether to enable data masking
+     * @return new request context
+     */
+    public RequestContext withMaskEnabled(Boolean maskEnabled) {
+        return new RequestContext(tenant, maskEnabled, traceId, deadlineNanos);
+    }
+
+    /**
+     * Create a request context with the specified trace id
+     *
+     * @param traceId trace id
+     * @return new request context
+     */
+    public RequestContext withTraceId(String traceId) {
+        return new RequestContext(tenant, maskEnabled, traceId, deadlineNanos);
+    }
+
+    /**
+     * Create a request context with the specified deadline, the tasks submitted to
+     * {@link com.luixtech.utilities.thread.pool.NetworkThreadPoolExecutor} with this context bound are dropped after it
+     *
+     * @param deadlineNanos deadline in the time base of {@link System#nanoTime()}
+     * @return new request context
+     */
+    public RequestContext withDeadlineNanos(Long deadlineNanos) {
+        return new RequestContext(tenant, maskEnabled, traceId, deadlineNanos);
+    }
+
+    /**
+     * Create a request context which expires after the timeout
+     *
+     * @param timeout timeout from now
+     * @param unit    time unit of the timeout
+     * @return new request context
+     */
+    public RequestContext withTimeout(long timeout, TimeUnit unit) {
+        return withDeadlineNanos(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * Run the task with this context bound
+     *
+     * @param task task
+     */
+    public void run(Runnable task) {
+        ScopedValue.where(CURRENT, this).run(task);
+    }
+
+    /**
+     * Call the operation with this context bound
+     *
+     * @param op  operation
+     * @param <T> result type
+     * @param <X> exception type
+     * @return result of the operation
+     * @throws X if the operation fails
+     */
+    public <T, X extends Throwable> T call(ScopedValue.CallableOp<T, X> op) throws X {
+        return ScopedValue.where(CURRENT, this).call(op);
+    }
+
+    /**
+     * Wrap the task to run it with this context bound in another thread
+     *
+     * @param task task
+     * @return wrapped task
+     */
+    public Runnable wrap(Runnable task) {
+        return () -> run(task);
+    }
+
+    /**
+     * Wrap the task to call it with this context bound in another thread
+     *
+     * @param task task
+     * @param <T>  result type
+     * @return wrapped task
+     */
+    public <T> Callable<T> wrap(Callable<T> task) {
+        return () -> call(task::call);
+    }
+
+    @Override
+    public String toString() {
+        return "RequestContext{tenant='" + tenant + "', maskEnabled=" + maskEnabled + ", traceId='" + traceId
+                + "', deadlineNanos=" + deadlineNanos + "}";
+    }
+}
@@ -2,22 +2,47 @@ package com.luixtech.utilities.thread;
 
 import org.apache.commons.lang3.StringUtils;
 
+/**
+ * Holder of the tenant of the current thread.
+ * <p>
+ * The tenant is bound by {@link RequestContext#withTenant(String)}, which is propagated to the tasks explicitly.
+ * The thread local value is a fallback for the code NOT bound to a context, and it is NOT inherited by the child
+ * threads, so no copy is made when a thread is created.
+ */
 public abstract class TenantThreadContextHolder {
-    private static final ThreadLocal<String> HOLDER = new InheritableThreadLocal<>() {
+    private static final ThreadLocal<String> HOLDER = new ThreadLocal<>() {
         @Override
         protected String initialValue() {
             return StringUtils.EMPTY;
         }
     };
 
+    /**
+     * Get the tenant of the bound {@link RequestContext}, or the thread local value if not specified
+     *
+     * @return tenant
+     */
     public static String getTenant() {
+        RequestContext context = RequestContext.current();
+        if (context != null && context.getTenant() != null) {
+            return context.getTenant();
+        }
         return HOLDER.get();
     }
 
+    /**
+     * @param tenant tenant
+     * @deprecated bind the tenant by {@link RequestContext#withTenant(String)} instead
+     */
+    @Deprecated
     public static void setTenant(String tenant) {
         HOLDER.set(tenant);
     }
 
+    /**
+     * @deprecated bind the tenant by {@link RequestContext#withTenant(String)} instead
+     */
+    @Deprecated
     public static void destroy() {
         HOLDER.remove();
     }
@@ -2,16 +2,69 @@ package com.luixtech.utilities.thread;
 
 import org.apache.commons.lang3.Validate;
 
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
 /**
  * Utility to throttle a thread to a given number of executions (records) per second.
+ * <p>
+ * By default, the thread sleeps in whole milliseconds, and throttles in batches of 2ms at high rates.
+ * In high precision mode, the batch is shortened to about 20 microseconds, and the thread parks with
+ * {@link LockSupport#parkNanos(long)} and then spins for the last few microseconds to compensate for the wake-up
+ * latency measured before, which keeps the achieved rate and the interval between batches stable.
+ * <p>
+ * Burst allowance is the number of records which can be executed without waiting to catch up with the schedule
+ * after the thread falls behind, e.g. after being idle.
  */
 public final class Throttler {
-    private long throttleBatchSize;
-    private long nanosPerBatch;
-    private long endOfNextBatchNanos;
-    private int  currentBatch;
+    /**
+     * Batch duration of the high precision mode
+     */
+    private static final long    PRECISE_NANOS_PER_BATCH = 20_000L;
+    /**
+     * Lateness compensated by the following batches in high precision mode, e.g. caused by preemption
+     */
+    private static final long    PRECISE_CATCH_UP_NANOS  = 10_000_000L;
+    /**
+     * Maximum spin duration of the high precision mode
+     */
+    private static final long    MAX_SPIN_NANOS          = 50_000L;
+    /**
+     * Number of the buckets of the wait time histogram, bucket i counts the waits in [2^i, 2^(i+1)) nanoseconds
+     */
+    public static final  int     WAIT_HISTOGRAM_BUCKETS  = 40;
+    private final        boolean highPrecision;
+    private final        int     maxBurstRecords;
+    private              long    throttleBatchSize;
+    private              long    nanosPerBatch;
+    private              long    endOfNextBatchNanos;
+    private              int     currentBatch;
+    private              long    burstNanos;
+    /**
+     * Estimated wake-up latency of parkNanos, which is covered by spinning
+     */
+    private              long    spinNanos               = 10_000L;
+    private              long    startNanos;
+    private              long    records;
+    private              long    waits;
+    private              long    totalWaitNanos;
+    private              long    maxWaitNanos;
+    private final        long[]  waitHistogram           = new long[WAIT_HISTOGRAM_BUCKETS];
 
     public Throttler(long maxRecordsPerSecond, int numberOfParallelSubtasks) {
+        this(maxRecordsPerSecond, numberOfParallelSubtasks, false, 0);
+    }
+
+    /**
+     * @param maxRecordsPerSecond      maximum records per second, or -1 (infinite)
+     * @param numberOfParallelSubtasks number of parallel subtasks sharing the rate
+     * @param highPrecision            whether to wait with parkNanos and spin instead of sleeping in milliseconds
+     * @param maxBurstRecords          maximum records executed without waiting to catch up with the schedule
+     */
+    public Throttler(long maxRecordsPerSecond, int numberOfParallelSubtasks, boolean highPrecision, int maxBurstRecords) {
+        Validate.isTrue(maxBurstRecords >= 0, "maxBurstRecords must NOT be negative");
+        this.highPrecision = highPrecision;
+        this.maxBurstRecords = maxBurstRecords;
         setup(maxRecordsPerSecond, numberOfParallelSubtasks);
     }
 
@@ -24,6 +77,7 @@ public final class Throttler {
                 maxRecordsPerSecond == -1 || maxRecordsPerSecond > 0,
                 "maxRecordsPerSecond must be positive or -1 (infinite)");
         Validate.isTrue(numberOfParallelSubtasks > 0, "numberOfParallelSubtasks must be greater than 0");
+        resetStatistics();
 
         if (maxRecordsPerSecond == -1) {
             // unlimited speed
@@ -31,11 +85,16 @@ public final class Throttler {
             nanosPerBatch = 0;
             endOfNextBatchNanos = System.nanoTime() + nanosPerBatch;
             currentBatch = 0;
+            burstNanos = 0;
             return;
         }
         final float ratePerSubtask = (float) maxRecordsPerSecond / numberOfParallelSubtasks;
 
-        if (ratePerSubtask >= 10000) {
+        if (highPrecision) {
+            // throttling in intervals of about 20us
+            throttleBatchSize = Math.max(1, (long) (ratePerSubtask * PRECISE_NANOS_PER_BATCH / 1_000_000_000L));
+            nanosPerBatch = Math.round(throttleBatchSize * 1_000_000_000D / ratePerSubtask);
+        } else if (ratePerSubtask >= 10000) {
             // high rates: all throttling in intervals of 2ms
             throttleBatchSize = (int) ratePerSubtask / 500;
             nanosPerBatch = 2_000_000L;
@@ -43,12 +102,14 @@ public final class Throttler {
             throttleBatchSize = ((int) (ratePerSubtask / 20)) + 1;
             nanosPerBatch = ((int) (1_000_000_000L / ratePerSubtask)) * throttleBatchSize;
         }
+        this.burstNanos = Math.round(maxBurstRecords * 1_000_000_000D / ratePerSubtask);
         this.endOfNextBatchNanos = System.nanoTime() + nanosPerBatch;
         this.currentBatch = 0;
     }
 
 
     public void throttle() throws InterruptedException {
+        records++;
         if (throttleBatchSize == -1) {
             return;
         }
@@ -58,13 +119,105 @@ public final class Throttler {
         currentBatch = 0;
 
         final long now = System.nanoTime();
-        final int millisRemaining = (int) ((endOfNextBatchNanos - now) / 1_000_000);
+        final long nanosRemaining = endOfNextBatchNanos - now;
 
+        if (highPrecision) {
+            if (nanosRemaining > 0) {
+                endOfNextBatchNanos += nanosPerBatch;
+                waitPrecisely(now, now + nanosRemaining);
+            } else {
+                // Catch up with the schedule within the burst allowance
+                endOfNextBatchNanos = Math.max(endOfNextBatchNanos, now - Math.max(burstNanos, PRECISE_CATCH_UP_NANOS))
+                        + nanosPerBatch;
+            }
+            return;
+        }
+
+        final int millisRemaining = (int) (nanosRemaining / 1_000_000);
         if (millisRemaining > 0) {
             endOfNextBatchNanos += nanosPerBatch;
             Thread.sleep(millisRemaining);
+            recordWait(System.nanoTime() - now);
+        } else if (burstNanos > 0) {
+            endOfNextBatchNanos = Math.max(endOfNextBatchNanos, now - burstNanos) + nanosPerBatch;
         } else {
             endOfNextBatchNanos = now + nanosPerBatch;
         }
     }
+
+    /**
+     * Park until shortly before the deadline, then spin until the deadline
+     */
+    private void waitPrecisely(long now, long deadline) throws InterruptedException {
+        long parkNanos = deadline - now - spinNanos;
+        if (parkNanos > 0) {
+            LockSupport.parkNanos(parkNanos);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            // Adapt the spin duration to the wake-up latency
+            long lateness = System.nanoTime() - (now + parkNanos);
+            spinNanos = Math.min(MAX_SPIN_NANOS, Math.max(0, (spinNanos * 7 + lateness) / 8));
+        }
+        long current;
+        while ((current = System.nanoTime()) < deadline) {
+            Thread.onSpinWait();
+        }
+        recordWait(current - now);
+    }
+
+    private void recordWait(long waitNanos) {
+        waits++;
+        totalWaitNanos += waitNanos;
+        maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+        int bucket = 63 - Long.numberOfLeadingZeros(Math.max(waitNanos, 1));
+        waitHistogram[Math.min(bucket, WAIT_HISTOGRAM_BUCKETS - 1)]++;
+    }
+
+    /**
+     * Reset the statistics of the achieved rate and the wait time
+     */
+    public void resetStatistics() {
+        startNanos = System.nanoTime();
+        records = 0;
+        waits = 0;
+        totalWaitNanos = 0;
+        maxWaitNanos = 0;
+        Arrays.fill(waitHistogram, 0);
+    }
+
+    /**
+     * Get the achieved rate since the statistics were reset
+     *
+     * @return records per second
+     */
+    public double getAchievedRate() {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed > 0 ? records * 1_000_000_000D / elapsed : 0;
+    }
+
+    public long getRecords() {
+        return records;
+    }
+
+    public long getWaits() {
+        return waits;
+    }
+
+    public long getTotalWaitNanos() {
+        return totalWaitNanos;
+    }
+
+    public long getMaxWaitNanos() {
+        return maxWaitNanos;
+    }
+
+    /**
+     * Get the wait time distribution, bucket i counts the waits in [2^i, 2^(i+1)) nanoseconds
+     *
+     * @return copy of the histogram
+     */
+    public long[] getWaitHistogram() {
+        return waitHistogram.clone();
+    }
 }
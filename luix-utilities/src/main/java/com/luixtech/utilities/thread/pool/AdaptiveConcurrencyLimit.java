@@ -0,0 +1,110 @@
+package com.luixtech.utilities.thread.pool;
+
+import org.apache.commons.lang3.Validate;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Concurrency limit adjusted by the task latency, which is a gradient algorithm similar to TCP Vegas.
+ * <p>
+ * The latency samples are aggregated in windows of about one sample per permit. The average latency of each window
+ * is compared with the long term average latency: if the latency rises beyond the tolerance, e.g. the remote
+ * dependency slows down, the limit is decreased by the ratio of them, otherwise the limit is increased by
+ * the square root of the limit. The limit is NOT increased if less than half of it is used.
+ * <p>
+ * The long term latency follows the short term latency slowly, so the limit recovers after the latency stays
+ * at a new level for a while.
+ */
+@ThreadSafe
+public final class AdaptiveConcurrencyLimit {
+    /**
+     * Ratio of the latency increase tolerated without decreasing the limit
+     */
+    private static final double TOLERANCE          = 1.5;
+    /**
+     * Weight of the new limit of each window
+     */
+    private static final double SMOOTHING          = 0.2;
+    /**
+     * Number of the windows averaged by the long term latency
+     */
+    private static final int    LONG_WINDOWS       = 100;
+    private static final int    MIN_WINDOW_SAMPLES = 10;
+    private final        int    minLimit;
+    private final        int    maxLimit;
+    private volatile     int    limit;
+    private              double estimatedLimit;
+    private              double longLatencyNanos;
+    private              long   windowLatencyNanos;
+    private              int    windowSamples;
+    private              int    windowMaxInflight;
+
+    /**
+     * @param initialLimit initial limit
+     * @param minLimit     minimum limit
+     * @param maxLimit     maximum limit
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        Validate.isTrue(minLimit > 0, "minLimit must be greater than 0");
+        Validate.isTrue(minLimit <= initialLimit && initialLimit <= maxLimit,
+                "initialLimit must be between minLimit and maxLimit");
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * Record the latency of a completed task
+     *
+     * @param latencyNanos latency in nanoseconds
+     * @param inflight     number of the in-flight tasks when the task completed
+     */
+    public synchronized void onSample(long latencyNanos, int inflight) {
+        windowLatencyNanos += latencyNanos;
+        windowSamples++;
+        windowMaxInflight = Math.max(windowMaxInflight, inflight);
+        if (windowSamples < Math.max(MIN_WINDOW_SAMPLES, limit)) {
+            return;
+        }
+        double shortLatencyNanos = Math.max((double) windowLatencyNanos / windowSamples, 1);
+        int maxInflight = windowMaxInflight;
+        windowLatencyNanos = 0;
+        windowSamples = 0;
+        windowMaxInflight = 0;
+        update(shortLatencyNanos, maxInflight);
+    }
+
+    private void update(double shortLatencyNanos, int maxInflight) {
+        if (longLatencyNanos == 0) {
+            longLatencyNanos = shortLatencyNanos;
+        } else {
+            longLatencyNanos += (shortLatencyNanos - longLatencyNanos) / LONG_WINDOWS;
+        }
+        if (longLatencyNanos / shortLatencyNanos > 2) {
+            // The latency dropped, follow it faster
+            longLatencyNanos *= 0.95;
+        }
+        if (maxInflight < estimatedLimit / 2) {
+            // The limit is NOT the bottleneck
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longLatencyNanos / shortLatencyNanos));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -0,0 +1,54 @@
+package com.luixtech.utilities.thread.pool;
+
+import java.util.Comparator;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * <pre>
+ * Task queue of {@link NetworkThreadPoolExecutor} which orders the tasks by the deadlines, the earliest deadline first.
+ * The tasks without deadline are ordered after the others in FIFO order.
+ * </pre>
+ */
+class DeadlineExecutorQueue extends PriorityBlockingQueue<Runnable> implements ExecutorTaskQueue {
+    private static final long                      serialVersionUID = -4786524018283749413L;
+    private static final int                       INITIAL_CAPACITY = 64;
+    private static final Comparator<Runnable>      DEADLINE_ORDER   = DeadlineExecutorQueue::compare;
+    private transient    NetworkThreadPoolExecutor threadPoolExecutor;
+
+    DeadlineExecutorQueue() {
+        super(INITIAL_CAPACITY, DEADLINE_ORDER);
+    }
+
+    private static int compare(Runnable r1, Runnable r2) {
+        NetworkThreadPoolExecutor.QueuedTask t1 = (NetworkThreadPoolExecutor.QueuedTask) r1;
+        NetworkThreadPoolExecutor.QueuedTask t2 = (NetworkThreadPoolExecutor.QueuedTask) r2;
+        if (t1.deadlineNanos != null && t2.deadlineNanos != null) {
+            // Compare the difference because of the possible numerical overflow of nanoTime
+            return Long.signum(t1.deadlineNanos - t2.deadlineNanos);
+        }
+        if (t1.deadlineNanos != null || t2.deadlineNanos != null) {
+            return t1.deadlineNanos != null ? -1 : 1;
+        }
+        return Long.signum(t1.submittedNanos - t2.submittedNanos);
+    }
+
+    @Override
+    public void setStandardThreadExecutor(NetworkThreadPoolExecutor threadPoolExecutor) {
+        this.threadPoolExecutor = threadPoolExecutor;
+    }
+
+    @Override
+    public NetworkThreadPoolExecutor getStandardThreadExecutor() {
+        return threadPoolExecutor;
+    }
+
+    @Override
+    public boolean enqueue(Runnable o) {
+        return super.offer(o);
+    }
+
+    @Override
+    public boolean offer(Runnable o) {
+        return offer(o, threadPoolExecutor.getPoolSize());
+    }
+}
@@ -0,0 +1,52 @@
+package com.luixtech.utilities.thread.pool;
+
+import com.luixtech.utilities.exception.InvocationTimeoutException;
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task with a deadline, which is NOT executed by {@link NetworkThreadPoolExecutor} if the deadline has passed
+ * when it is dequeued, e.g. the caller has timed out.
+ */
+public interface DeadlineRunnable extends Runnable {
+
+    /**
+     * Get the deadline
+     *
+     * @return deadline in the time base of {@link System#nanoTime()}
+     */
+    long getDeadlineNanos();
+
+    /**
+     * Called instead of {@link #run()} if the deadline has passed
+     *
+     * @param e timeout exception
+     */
+    default void onExpired(InvocationTimeoutException e) {
+    }
+
+    /**
+     * Create a task which expires after the timeout
+     *
+     * @param task    task
+     * @param timeout timeout from now
+     * @param unit    time unit of the timeout
+     * @return task with the deadline
+     */
+    static DeadlineRunnable of(Runnable task, long timeout, TimeUnit unit) {
+        Validate.notNull(task, "Task must not be null!");
+        long deadlineNanos = System.nanoTime() + unit.toNanos(timeout);
+        return new DeadlineRunnable() {
+            @Override
+            public long getDeadlineNanos() {
+                return deadlineNanos;
+            }
+
+            @Override
+            public void run() {
+                task.run();
+            }
+        };
+    }
+}
@@ -1,7 +1,13 @@
 package com.luixtech.utilities.thread.pool;
 
+import com.luixtech.utilities.exception.InvocationTimeoutException;
+import com.luixtech.utilities.thread.RequestContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 
 /**
@@ -16,23 +22,60 @@ import java.util.concurrent.atomic.AtomicInteger;
  * {@link java.util.concurrent.ThreadPoolExecutor}
  * Execution strategy：运行线程大于corePoolSize时将新任务加入workQueue中，workQueue满后再扩充线程到maximumPoolSize，如果已经到了maximumPoolSize就reject。
  * Applicable scenario：CPU intensive applications (e.g. All operations performed inside runnable are In-JVM, memory copy, or compute. etc.)
+ *
+ * With an {@link AdaptiveConcurrencyLimit}, the maximum pool size follows the limit adjusted by the task execution time,
+ * and the maximum processing task count is scaled with it, so the tasks are rejected early when the remote resources slow down.
+ *
+ * With the sharded queue, the tasks are queued in a shard per CPU core and the idle threads steal tasks from the other shards,
+ * and the pool size is counted without the lock of the executor, see {@link ShardedExecutorQueue}.
+ *
+ * The tasks with a deadline, which is specified by {@link DeadlineRunnable} or the {@link RequestContext} of the submitting thread,
+ * are dropped if the deadline has passed when they are dequeued, and the futures of them fail with {@link InvocationTimeoutException}.
+ * Only the futures returned by submit() and the {@link DeadlineRunnable} tasks are notified, the plain runnables passed to
+ * execute() with the deadline of the {@link RequestContext} are dropped silently, which are counted by {@link #getSilentlyShedTasksCount()}.
+ * With the earliest deadline first queue, the tasks with the earliest deadline are executed first.
  * </pre>
  */
+@Slf4j
 public class NetworkThreadPoolExecutor extends ThreadPoolExecutor {
-    public static final int           DEFAULT_CORE_POOL_SIZE  = 20;
-    public static final int           DEFAULT_MAX_POOL_SIZE   = 200;
+    public static final int                      DEFAULT_CORE_POOL_SIZE  = 20;
+    public static final int                      DEFAULT_MAX_POOL_SIZE   = 200;
     /**
      * 1 minute
      */
-    public static final int           DEFAULT_KEEP_ALIVE_TIME = 60 * 1000;
+    public static final int                      DEFAULT_KEEP_ALIVE_TIME = 60 * 1000;
     /**
      * Processing task count
      */
-    protected           AtomicInteger submittedTasksCount     = new AtomicInteger(0);
+    protected           AtomicInteger            submittedTasksCount     = new AtomicInteger(0);
     /**
      * Maximum processing task count limit: queueCapacity + maximumPoolSize
      */
-    private final       int           maxSubmittedTasksCount;
+    private final       int                      maxSubmittedTasksCount;
+    private final       int                      queueCapacity;
+    private final       int                      maximumPoolSizeLimit;
+    /**
+     * Adaptive concurrency limit, null if disabled
+     */
+    private final       AdaptiveConcurrencyLimit concurrencyLimit;
+    /**
+     * Rejected task count
+     */
+    private final       LongAdder                rejectedTasksCount      = new LongAdder();
+    /**
+     * Count of the tasks forced into the queue after being rejected by the underlying executor
+     */
+    private final       LongAdder                forcedTasksCount        = new LongAdder();
+    /**
+     * Count of the tasks dropped because the deadline passed before they were executed
+     */
+    private final       LongAdder                shedTasksCount          = new LongAdder();
+    /**
+     * Count of the shed tasks whose submitters are NOT notified
+     */
+    private final       LongAdder                silentlyShedTasksCount  = new LongAdder();
+    private final       QueueType                queueType;
+    private volatile    TaskTimeRecorder         taskTimeRecorder;
 
     public NetworkThreadPoolExecutor() {
         this(DEFAULT_CORE_POOL_SIZE, DEFAULT_MAX_POOL_SIZE);
@@ -65,11 +108,54 @@ public class NetworkThreadPoolExecutor extends ThreadPoolExecutor {
 
     public NetworkThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
                                      int queueCapacity, ThreadFactory threadFactory, RejectedExecutionHandler handler) {
-        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, new ExecutorQueue(), threadFactory, handler);
-        ((ExecutorQueue) getQueue()).setStandardThreadExecutor(this);
+        this(corePoolSize, maximumPoolSize, keepAliveTime, unit, queueCapacity, threadFactory, handler, null);
+    }
+
+    /**
+     * @param concurrencyLimit adaptive limit of the concurrently running tasks, whose limit is bounded by
+     *                         corePoolSize and maximumPoolSize, or null to use a fixed maximumPoolSize
+     */
+    public NetworkThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                     int queueCapacity, ThreadFactory threadFactory, RejectedExecutionHandler handler,
+                                     AdaptiveConcurrencyLimit concurrencyLimit) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime, unit, queueCapacity, threadFactory, handler, concurrencyLimit, QueueType.SINGLE);
+    }
+
+    /**
+     * @param concurrencyLimit adaptive limit of the concurrently running tasks, or null to use a fixed maximumPoolSize
+     * @param queueType        type of the task queue
+     */
+    public NetworkThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                     int queueCapacity, ThreadFactory threadFactory, RejectedExecutionHandler handler,
+                                     AdaptiveConcurrencyLimit concurrencyLimit, QueueType queueType) {
+        this(corePoolSize, maximumPoolSize, keepAliveTime, unit, queueCapacity, createQueue(queueType),
+                threadFactory, handler, concurrencyLimit, queueType);
+    }
+
+    private NetworkThreadPoolExecutor(int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+                                      int queueCapacity, ExecutorTaskQueue queue, ThreadFactory threadFactory,
+                                      RejectedExecutionHandler handler, AdaptiveConcurrencyLimit concurrencyLimit,
+                                      QueueType queueType) {
+        super(corePoolSize, maximumPoolSize, keepAliveTime, unit, queue, queue.decorate(threadFactory), handler);
+        queue.setStandardThreadExecutor(this);
+        this.queueType = queueType;
 
         // Maximum processing task count limit: queueCapacity + maximumPoolSize
         maxSubmittedTasksCount = queueCapacity + maximumPoolSize;
+        this.queueCapacity = queueCapacity;
+        this.maximumPoolSizeLimit = maximumPoolSize;
+        this.concurrencyLimit = concurrencyLimit;
+        if (concurrencyLimit != null) {
+            adjustMaximumPoolSize(concurrencyLimit.getLimit());
+        }
+    }
+
+    private static ExecutorTaskQueue createQueue(QueueType queueType) {
+        return switch (queueType) {
+            case SINGLE -> new ExecutorQueue();
+            case SHARDED -> new ShardedExecutorQueue(Runtime.getRuntime().availableProcessors());
+            case EARLIEST_DEADLINE_FIRST -> new DeadlineExecutorQueue();
+        };
     }
 
     @Override
@@ -77,21 +163,52 @@ public class NetworkThreadPoolExecutor extends ThreadPoolExecutor {
         int count = submittedTasksCount.incrementAndGet();
 
         // LinkedTransferQueue has no capacity limit, so we need to execute reject policy when exceeding the maxSubmittedTasksCount
-        if (count > maxSubmittedTasksCount) {
+        if (count > getEffectiveMaxSubmittedTasksCount()) {
             submittedTasksCount.decrementAndGet();
+            rejectedTasksCount.increment();
             getRejectedExecutionHandler().rejectedExecution(command, this);
+            return;
         }
 
+        Long deadlineNanos = getDeadlineNanos(command);
+        // Wrap the task only if the submission time or the deadline is used
+        Runnable task = concurrencyLimit != null || taskTimeRecorder != null || deadlineNanos != null
+                || queueType == QueueType.EARLIEST_DEADLINE_FIRST ? new QueuedTask(command, deadlineNanos) : command;
         try {
-            super.execute(command);
+            super.execute(task);
         } catch (RejectedExecutionException rx) {
-            if (!((ExecutorQueue) getQueue()).force(command)) {
+            if (((ExecutorTaskQueue) getQueue()).force(task)) {
+                forcedTasksCount.increment();
+            } else {
                 submittedTasksCount.decrementAndGet();
+                rejectedTasksCount.increment();
                 getRejectedExecutionHandler().rejectedExecution(command, this);
             }
         }
     }
 
+    private static Long getDeadlineNanos(Runnable command) {
+        if (command instanceof DeadlineRunnable deadlineRunnable) {
+            return deadlineRunnable.getDeadlineNanos();
+        }
+        RequestContext context = RequestContext.current();
+        return context != null ? context.getDeadlineNanos() : null;
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        Long deadlineNanos = getDeadlineNanos(runnable);
+        return deadlineNanos != null ? new DeadlineFutureTask<>(Executors.callable(runnable, value), deadlineNanos, runnable)
+                : super.newTaskFor(runnable, value);
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        RequestContext context = RequestContext.current();
+        return context != null && context.getDeadlineNanos() != null
+                ? new DeadlineFutureTask<>(callable, context.getDeadlineNanos(), null) : super.newTaskFor(callable);
+    }
+
     public int getSubmittedTasksCount() {
         return this.submittedTasksCount.get();
     }
@@ -100,9 +217,295 @@ public class NetworkThreadPoolExecutor extends ThreadPoolExecutor {
         return maxSubmittedTasksCount;
     }
 
+    /**
+     * Get the maximum processing task count scaled by the adaptive concurrency limit
+     *
+     * @return maximum processing task count currently in effect
+     */
+    public int getEffectiveMaxSubmittedTasksCount() {
+        if (concurrencyLimit == null) {
+            return maxSubmittedTasksCount;
+        }
+        int poolSize = getMaximumPoolSize();
+        return poolSize + (int) ((long) queueCapacity * poolSize / maximumPoolSizeLimit);
+    }
+
+    public AdaptiveConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public long getRejectedTasksCount() {
+        return rejectedTasksCount.sum();
+    }
+
+    public long getForcedTasksCount() {
+        return forcedTasksCount.sum();
+    }
+
+    public long getShedTasksCount() {
+        return shedTasksCount.sum();
+    }
+
+    /**
+     * Get the count of the shed tasks whose submitters are NOT notified, i.e. the plain runnables passed to execute()
+     * with the deadline of the {@link RequestContext}
+     *
+     * @return count of the silently shed tasks, which is included in {@link #getShedTasksCount()}
+     */
+    public long getSilentlyShedTasksCount() {
+        return silentlyShedTasksCount.sum();
+    }
+
+    public QueueType getQueueType() {
+        return queueType;
+    }
+
+    public TaskTimeRecorder getTaskTimeRecorder() {
+        return taskTimeRecorder;
+    }
+
+    /**
+     * Set the recorder of the queue wait time and the execution time, it only applies to the tasks submitted after it is set
+     *
+     * @param taskTimeRecorder task time recorder, or null to disable the recording
+     */
+    public void setTaskTimeRecorder(TaskTimeRecorder taskTimeRecorder) {
+        this.taskTimeRecorder = taskTimeRecorder;
+    }
+
+    @Override
+    protected void beforeExecute(Thread t, Runnable r) {
+        if (r instanceof QueuedTask queuedTask) {
+            queuedTask.startNanos = System.nanoTime();
+        }
+    }
+
     @Override
     protected void afterExecute(Runnable r, Throwable t) {
-        submittedTasksCount.decrementAndGet();
+        int inflight = submittedTasksCount.getAndDecrement();
+        if (r instanceof QueuedTask queuedTask && !queuedTask.shed) {
+            long executionNanos = System.nanoTime() - queuedTask.startNanos;
+            if (concurrencyLimit != null) {
+                concurrencyLimit.onSample(executionNanos, inflight);
+                adjustMaximumPoolSize(concurrencyLimit.getLimit());
+            }
+            TaskTimeRecorder recorder = taskTimeRecorder;
+            if (recorder != null) {
+                recorder.record(queuedTask.startNanos - queuedTask.submittedNanos, executionNanos);
+            }
+        }
+    }
+
+    /**
+     * Remove the task from the queue, the submitted task is matched instead of the internal wrapper
+     *
+     * @param task the task to remove
+     * @return true if the task was removed
+     */
+    @Override
+    public boolean remove(Runnable task) {
+        for (Runnable queued : getQueue()) {
+            if (unwrap(queued).equals(task) && super.remove(queued)) {
+                // The removed task is never executed, so the count is NOT decremented by afterExecute
+                submittedTasksCount.decrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remove the cancelled futures from the queue, the internal wrappers of the futures are removed as well
+     */
+    @Override
+    public void purge() {
+        for (Runnable queued : getQueue()) {
+            if (unwrap(queued) instanceof Future<?> future && future.isCancelled() && super.remove(queued)) {
+                submittedTasksCount.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Attempt to stop all executing tasks and return the submitted tasks which never commenced execution
+     *
+     * @return the submitted tasks instead of the internal wrappers
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        List<Runnable> tasks = super.shutdownNow();
+        tasks.replaceAll(NetworkThreadPoolExecutor::unwrap);
+        submittedTasksCount.addAndGet(-tasks.size());
+        return tasks;
+    }
+
+    private static Runnable unwrap(Runnable task) {
+        return task instanceof QueuedTask queuedTask ? queuedTask.task : task;
+    }
+
+    private void adjustMaximumPoolSize(int limit) {
+        int poolSize = Math.max(getCorePoolSize(), Math.min(limit, maximumPoolSizeLimit));
+        if (poolSize != getMaximumPoolSize()) {
+            setMaximumPoolSize(poolSize);
+        }
+    }
+
+    /**
+     * Recorder of the time of the tasks
+     */
+    @FunctionalInterface
+    public interface TaskTimeRecorder {
+        /**
+         * Record the time of a completed task
+         *
+         * @param queueWaitNanos time waiting in the queue in nanoseconds
+         * @param executionNanos execution time in nanoseconds
+         */
+        void record(long queueWaitNanos, long executionNanos);
+    }
+
+    public enum QueueType {
+        /**
+         * Single FIFO queue
+         */
+        SINGLE,
+        /**
+         * FIFO queue shard per CPU core with work stealing, which reduces the contention of many submitting threads and pool threads
+         */
+        SHARDED,
+        /**
+         * Priority queue of the deadlines, the tasks without deadline are executed after the others in FIFO order
+         */
+        EARLIEST_DEADLINE_FIRST
+    }
+
+    /**
+     * Task with the submission time and the deadline
+     */
+    final class QueuedTask implements Runnable {
+        final   Runnable task;
+        final   long     submittedNanos = System.nanoTime();
+        /**
+         * Deadline, null if no deadline
+         */
+        final   Long     deadlineNanos;
+        private long     startNanos;
+        private boolean  shed;
+
+        private QueuedTask(Runnable task, Long deadlineNanos) {
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        @Override
+        public void run() {
+            if (deadlineNanos != null && System.nanoTime() - deadlineNanos >= 0) {
+                // The caller has given up, drop the task to save the capacity
+                shed = true;
+                shedTasksCount.increment();
+                long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - submittedNanos);
+                if (task instanceof DeadlineRunnable deadlineRunnable) {
+                    deadlineRunnable.onExpired(new InvocationTimeoutException(waitMillis,
+                            "Task expired after waiting " + waitMillis + "ms in the queue"));
+                } else {
+                    silentlyShedTasksCount.increment();
+                    log.debug("Dropped the task [{}] expired after waiting {}ms in the queue", task, waitMillis);
+                }
+                return;
+            }
+            task.run();
+        }
+    }
+
+    private static final class DeadlineFutureTask<T> extends FutureTask<T> implements DeadlineRunnable {
+        private final long     deadlineNanos;
+        /**
+         * Submitted task which is notified of the expiration, null if not submitted as a runnable
+         */
+        private final Runnable runnable;
+
+        private DeadlineFutureTask(Callable<T> callable, long deadlineNanos, Runnable runnable) {
+            super(callable);
+            this.deadlineNanos = deadlineNanos;
+            this.runnable = runnable;
+        }
+
+        @Override
+        public long getDeadlineNanos() {
+            return deadlineNanos;
+        }
+
+        @Override
+        public void onExpired(InvocationTimeoutException e) {
+            setException(e);
+            if (runnable instanceof DeadlineRunnable deadlineRunnable) {
+                deadlineRunnable.onExpired(e);
+            }
+        }
+    }
+}
+
+/**
+ * Task queue which cooperates with {@link NetworkThreadPoolExecutor}
+ */
+interface ExecutorTaskQueue extends BlockingQueue<Runnable> {
+
+    void setStandardThreadExecutor(NetworkThreadPoolExecutor threadPoolExecutor);
+
+    NetworkThreadPoolExecutor getStandardThreadExecutor();
+
+    /**
+     * Insert the task into the queue unconditionally
+     *
+     * @param o task
+     * @return true if inserted
+     */
+    boolean enqueue(Runnable o);
+
+    /**
+     * Insert the task into the queue after it is rejected by the underlying executor
+     *
+     * @param o task
+     * @return true if inserted
+     */
+    default boolean force(Runnable o) {
+        if (getStandardThreadExecutor().isShutdown()) {
+            throw new RejectedExecutionException("Can NOT insert a task into the queue after the executor shutdown!");
+        }
+        return enqueue(o);
+    }
+
+    /**
+     * Insert the task into the queue only if no more thread can be created or there are idle threads,
+     * otherwise the executor creates a new thread for the task, so the threads grow to the maximum before queueing
+     *
+     * @param o        task
+     * @param poolSize current pool size
+     * @return true if inserted, false to make the executor create a new thread
+     */
+    default boolean offer(Runnable o, int poolSize) {
+        NetworkThreadPoolExecutor threadPoolExecutor = getStandardThreadExecutor();
+        // we are maxed out on threads, simply queue the object
+        if (poolSize >= threadPoolExecutor.getMaximumPoolSize()) {
+            return enqueue(o);
+        }
+        // we have idle threads, just add it to the queue
+        // note that we don't use getActiveCount(), see BZ 49730
+        if (threadPoolExecutor.getSubmittedTasksCount() <= poolSize) {
+            return enqueue(o);
+        }
+        // we have less threads than maximum, force creation of a new thread
+        return false;
+    }
+
+    /**
+     * Decorate the thread factory of the executor
+     *
+     * @param threadFactory thread factory
+     * @return decorated thread factory
+     */
+    default ThreadFactory decorate(ThreadFactory threadFactory) {
+        return threadFactory;
     }
 }
 
@@ -112,7 +515,7 @@ public class NetworkThreadPoolExecutor extends ThreadPoolExecutor {
  * 2. But LinkedTransferQueue has no capacity limit control, so we need to implement the logic outside the queue
  * </pre>
  */
-class ExecutorQueue extends LinkedTransferQueue<Runnable> {
+class ExecutorQueue extends LinkedTransferQueue<Runnable> implements ExecutorTaskQueue {
     private static final long                      serialVersionUID = 1693153562045930859L;
     private              NetworkThreadPoolExecutor threadPoolExecutor;
 
@@ -120,36 +523,24 @@ class ExecutorQueue extends LinkedTransferQueue<Runnable> {
         super();
     }
 
+    @Override
     public void setStandardThreadExecutor(NetworkThreadPoolExecutor threadPoolExecutor) {
         this.threadPoolExecutor = threadPoolExecutor;
     }
 
-    public boolean force(Runnable o) {
-        if (threadPoolExecutor.isShutdown()) {
-            throw new RejectedExecutionException("Can NOT insert a task into the queue after the executor shutdown!");
-        }
+    @Override
+    public NetworkThreadPoolExecutor getStandardThreadExecutor() {
+        return threadPoolExecutor;
+    }
+
+    @Override
+    public boolean enqueue(Runnable o) {
         // Inserts the specified element at the tail of this queue.
         return super.offer(o);
     }
 
     @Override
     public boolean offer(Runnable o) {
-        int poolSize = threadPoolExecutor.getPoolSize();
-
-        // we are maxed out on threads, simply queue the object
-        if (poolSize == threadPoolExecutor.getMaximumPoolSize()) {
-            return super.offer(o);
-        }
-        // we have idle threads, just add it to the queue
-        // note that we don't use getActiveCount(), see BZ 49730
-        if (threadPoolExecutor.getSubmittedTasksCount() <= poolSize) {
-            return super.offer(o);
-        }
-        // if we have less threads than maximum force creation of a new thread
-        if (poolSize < threadPoolExecutor.getMaximumPoolSize()) {
-            return false;
-        }
-        // if we reached here, we need to add it to the queue
-        return super.offer(o);
+        return offer(o, threadPoolExecutor.getPoolSize());
     }
 }
\ No newline at end of file
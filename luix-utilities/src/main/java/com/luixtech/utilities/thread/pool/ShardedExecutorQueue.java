@@ -0,0 +1,245 @@
+package com.luixtech.utilities.thread.pool;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ * Task queue of {@link NetworkThreadPoolExecutor} which is split into shards to reduce the contention.
+ * 1. A thread offers tasks to and polls tasks from its home shard, and steals tasks from the other shards when its home shard is empty
+ * 2. The idle threads wait on a hand-off queue, and the tasks are transferred to them directly
+ * 3. The pool size is counted by the threads created by the decorated thread factory, so the executor lock is NOT required.
+ *    A thread which fails to start, e.g. out of memory, is never uncounted, so the pool grows less before queueing afterwards
+ * </pre>
+ */
+class ShardedExecutorQueue extends AbstractQueue<Runnable> implements ExecutorTaskQueue {
+    /**
+     * Marker to wake up an idle thread to scan the shards
+     */
+    private static final Runnable                          WAKE_UP = () -> {
+    };
+    private final        ConcurrentLinkedQueue<Runnable>[] shards;
+    private final        int                               mask;
+    /**
+     * Queue where the idle threads wait for the tasks
+     */
+    private final        LinkedTransferQueue<Runnable>     handOff = new LinkedTransferQueue<>();
+    private final        AtomicInteger                     waiters = new AtomicInteger();
+    private final        AtomicInteger                     threads = new AtomicInteger();
+    private              NetworkThreadPoolExecutor         threadPoolExecutor;
+
+    @SuppressWarnings("unchecked")
+    ShardedExecutorQueue(int parallelism) {
+        int size = Integer.highestOneBit(Math.max(parallelism, 1) * 2 - 1);
+        shards = new ConcurrentLinkedQueue[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new ConcurrentLinkedQueue<>();
+        }
+        mask = size - 1;
+    }
+
+    @Override
+    public void setStandardThreadExecutor(NetworkThreadPoolExecutor threadPoolExecutor) {
+        this.threadPoolExecutor = threadPoolExecutor;
+    }
+
+    @Override
+    public ThreadFactory decorate(ThreadFactory threadFactory) {
+        return r -> {
+            Thread thread = threadFactory.newThread(() -> {
+                try {
+                    r.run();
+                } finally {
+                    threads.decrementAndGet();
+                }
+            });
+            if (thread != null) {
+                // Counted when the executor creates the thread instead of when it starts, otherwise the submitting
+                // threads keep trying to add threads beyond the maximum until it is scheduled
+                threads.incrementAndGet();
+            }
+            return thread;
+        };
+    }
+
+    @Override
+    public NetworkThreadPoolExecutor getStandardThreadExecutor() {
+        return threadPoolExecutor;
+    }
+
+    @Override
+    public boolean offer(Runnable o) {
+        // The threads are counted by the decorated thread factory without the lock of the executor
+        return offer(o, threads.get());
+    }
+
+    @Override
+    public boolean enqueue(Runnable o) {
+        Objects.requireNonNull(o);
+        if (waiters.get() > 0 && handOff.tryTransfer(o)) {
+            return true;
+        }
+        shards[homeShard()].offer(o);
+        if (waiters.get() > 0) {
+            // A thread may have started waiting after scanning the shard
+            handOff.offer(WAKE_UP);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean offer(Runnable o, long timeout, TimeUnit unit) {
+        return offer(o);
+    }
+
+    @Override
+    public void put(Runnable o) {
+        offer(o);
+    }
+
+    @Override
+    public Runnable poll() {
+        int home = homeShard();
+        for (int i = 0; i <= mask; i++) {
+            Runnable task = shards[(home + i) & mask].poll();
+            if (task != null) {
+                return task;
+            }
+        }
+        Runnable task;
+        while ((task = handOff.poll()) == WAKE_UP) {
+            // Skip the stale markers
+        }
+        return task;
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return await(true, unit.toNanos(timeout));
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        return await(false, 0);
+    }
+
+    private Runnable await(boolean timed, long nanos) throws InterruptedException {
+        Runnable task = poll();
+        if (task != null) {
+            return task;
+        }
+        long deadline = System.nanoTime() + nanos;
+        waiters.incrementAndGet();
+        try {
+            while (true) {
+                // Scan again after being counted as a waiter, so no task offered meanwhile is missed
+                task = poll();
+                if (task != null) {
+                    return task;
+                }
+                task = timed ? handOff.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS) : handOff.take();
+                if (task != WAKE_UP) {
+                    return task;
+                }
+            }
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    @Override
+    public Runnable peek() {
+        for (ConcurrentLinkedQueue<Runnable> shard : shards) {
+            Runnable task = shard.peek();
+            if (task != null) {
+                return task;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (ConcurrentLinkedQueue<Runnable> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        for (ConcurrentLinkedQueue<Runnable> shard : shards) {
+            if (shard.remove(o)) {
+                return true;
+            }
+        }
+        return handOff.remove(o);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c, int maxElements) {
+        int n = 0;
+        Runnable task;
+        while (n < maxElements && (task = poll()) != null) {
+            c.add(task);
+            n++;
+        }
+        return n;
+    }
+
+    /**
+     * Iterator over a snapshot of the tasks, which supports removal
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        List<Runnable> tasks = new ArrayList<>();
+        for (ConcurrentLinkedQueue<Runnable> shard : shards) {
+            tasks.addAll(shard);
+        }
+        Iterator<Runnable> iterator = tasks.iterator();
+        return new Iterator<>() {
+            private Runnable last;
+
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Runnable next() {
+                return last = iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                ShardedExecutorQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    private int homeShard() {
+        int h = System.identityHashCode(Thread.currentThread());
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,191 @@
+package com.luixtech.utilities.thread.pool;
+
+import org.apache.commons.lang3.Validate;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Virtual thread counterpart of {@link NetworkThreadPoolExecutor}, which runs each task on a new virtual thread.
+ * <p>
+ * The tasks waiting on remote resources do NOT hold any platform thread, so the concurrency is NOT capped by
+ * the pool size. The number of the processing tasks is limited by a semaphore of maxSubmittedTasksCount permits,
+ * and the tasks exceeding it are rejected by the {@link RejectedTaskHandler} immediately, the same as
+ * {@link NetworkThreadPoolExecutor} whose queue is full.
+ * <p>
+ * {@link java.util.concurrent.RejectedExecutionHandler} requires a {@link ThreadPoolExecutor}, so the rejection
+ * is handled by {@link RejectedTaskHandler} which provides the same policies.
+ */
+@ThreadSafe
+public class VirtualThreadNetworkExecutor extends AbstractExecutorService {
+    public static final int                 DEFAULT_MAX_SUBMITTED_TASKS_COUNT = 10_000;
+    private final       int                 maxSubmittedTasksCount;
+    private final       Semaphore           permits;
+    private final       ThreadFactory       threadFactory;
+    private final       RejectedTaskHandler handler;
+    /**
+     * Threads running the tasks, which are interrupted by {@link #shutdownNow()}
+     */
+    private final       Set<Thread>         threads                           = ConcurrentHashMap.newKeySet();
+    private final       LongAdder           rejectedTasksCount                = new LongAdder();
+    private final       CountDownLatch      terminated                        = new CountDownLatch(1);
+    private volatile    boolean             shutdown;
+    /**
+     * Whether {@link #shutdownNow()} was called
+     */
+    private volatile    boolean             interrupted;
+
+    public VirtualThreadNetworkExecutor() {
+        this(DEFAULT_MAX_SUBMITTED_TASKS_COUNT);
+    }
+
+    public VirtualThreadNetworkExecutor(int maxSubmittedTasksCount) {
+        this(maxSubmittedTasksCount, "network-virtual-", RejectedTaskHandler.ABORT);
+    }
+
+    /**
+     * @param maxSubmittedTasksCount maximum processing task count
+     * @param threadNamePrefix       prefix of the thread names
+     * @param handler                handler of the rejected tasks
+     */
+    public VirtualThreadNetworkExecutor(int maxSubmittedTasksCount, String threadNamePrefix, RejectedTaskHandler handler) {
+        Validate.isTrue(maxSubmittedTasksCount > 0, "maxSubmittedTasksCount must be greater than 0");
+        Validate.notNull(threadNamePrefix, "Thread name prefix must not be null!");
+        Validate.notNull(handler, "Rejected task handler must not be null!");
+        this.maxSubmittedTasksCount = maxSubmittedTasksCount;
+        this.permits = new Semaphore(maxSubmittedTasksCount);
+        this.threadFactory = Thread.ofVirtual().name(threadNamePrefix, 0).factory();
+        this.handler = handler;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        Validate.notNull(command, "Command must not be null!");
+        if (!permits.tryAcquire()) {
+            reject(command);
+            return;
+        }
+        if (shutdown) {
+            releasePermit();
+            reject(command);
+            return;
+        }
+        Thread thread = null;
+        try {
+            thread = threadFactory.newThread(() -> {
+                try {
+                    if (interrupted) {
+                        // shutdownNow() was called before the thread was registered
+                        Thread.currentThread().interrupt();
+                    }
+                    command.run();
+                } finally {
+                    threads.remove(Thread.currentThread());
+                    releasePermit();
+                }
+            });
+            // Register the thread before it starts, so it can NOT be missed by shutdownNow()
+            threads.add(thread);
+            thread.start();
+        } catch (Throwable t) {
+            if (thread != null) {
+                threads.remove(thread);
+            }
+            releasePermit();
+            throw t;
+        }
+    }
+
+    private void reject(Runnable command) {
+        rejectedTasksCount.increment();
+        handler.rejectedExecution(command, this);
+    }
+
+    private void releasePermit() {
+        permits.release();
+        if (shutdown && permits.availablePermits() == maxSubmittedTasksCount) {
+            terminated.countDown();
+        }
+    }
+
+    public int getSubmittedTasksCount() {
+        return maxSubmittedTasksCount - permits.availablePermits();
+    }
+
+    public int getMaxSubmittedTasksCount() {
+        return maxSubmittedTasksCount;
+    }
+
+    public long getRejectedTasksCount() {
+        return rejectedTasksCount.sum();
+    }
+
+    @Override
+    public void shutdown() {
+        shutdown = true;
+        if (permits.availablePermits() == maxSubmittedTasksCount) {
+            terminated.countDown();
+        }
+    }
+
+    /**
+     * Shutdown and interrupt the running tasks, there is no waiting task
+     *
+     * @return empty list
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        interrupted = true;
+        threads.forEach(Thread::interrupt);
+        return new ArrayList<>(0);
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    /**
+     * Handler of the tasks rejected by {@link VirtualThreadNetworkExecutor}
+     */
+    @FunctionalInterface
+    public interface RejectedTaskHandler {
+        /**
+         * Throw {@link RejectedExecutionException}
+         */
+        RejectedTaskHandler ABORT       = (r, executor) -> {
+            throw new RejectedExecutionException("Task " + r + " rejected from " + executor + " with "
+                    + executor.getSubmittedTasksCount() + " processing tasks");
+        };
+        /**
+         * Run the task in the caller thread unless the executor has been shutdown
+         */
+        RejectedTaskHandler CALLER_RUNS = (r, executor) -> {
+            if (!executor.isShutdown()) {
+                r.run();
+            }
+        };
+        /**
+         * Discard the task silently
+         */
+        RejectedTaskHandler DISCARD     = (r, executor) -> {
+        };
+
+        void rejectedExecution(Runnable r, VirtualThreadNetworkExecutor executor);
+    }
+}
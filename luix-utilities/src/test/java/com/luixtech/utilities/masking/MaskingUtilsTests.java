@@ -0,0 +1,117 @@
+package com.luixtech.utilities.masking;
+
+import com.sun.management.ThreadMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+public class MaskingUtilsTests {
+
+    @Test
+    public void testMask() {
+        assertThat(MaskingUtils.maskChineseName("李小龙")).isEqualTo("李**");
+        assertThat(MaskingUtils.maskIdCard("420106199001015762")).isEqualTo("420***********5762");
+        assertThat(MaskingUtils.maskLandlinePhone("02161234567")).isEqualTo("*******4567");
+        assertThat(MaskingUtils.maskMobilePhone("13812341234")).isEqualTo("138****1234");
+        assertThat(MaskingUtils.maskAddress("北京市海淀区中关村大街", 4)).isEqualTo("北京市海淀区中****");
+        assertThat(MaskingUtils.maskEmail("guest@163.com")).isEqualTo("g****@163.com");
+        assertThat(MaskingUtils.maskBankCard("6222600012341234")).isEqualTo("622260******1234");
+        assertThat(MaskingUtils.maskCnapsCode("1234567890")).isEqualTo("12********");
+        assertThat(MaskingUtils.maskMobilePhone(" ")).isEmpty();
+    }
+
+    @Test
+    public void testMaskShortText() {
+        // 长度不足时与原有实现保持一致
+        assertThat(MaskingUtils.maskMobilePhone("1234")).isEqualTo("1231234");
+        assertThat(MaskingUtils.maskMobilePhone("12345")).isEqualTo("123*2345");
+        assertThat(MaskingUtils.maskBankCard("123456789")).isEqualTo("123456*****6789");
+        assertThat(MaskingUtils.maskEmail("a@163.com")).isEqualTo("a@163.com");
+    }
+
+    @Test
+    public void testMaskIntoDestination() {
+        StringBuilder sb = new StringBuilder("id:");
+        assertThat(MaskingUtils.maskIdCard("420106199001015762", sb).toString()).isEqualTo("id:420***********5762");
+
+        char[] dest = new char[32];
+        int length = MaskingUtils.maskBankCard("6222600012341234", dest);
+        assertThat(new String(dest, 0, length)).isEqualTo("622260******1234");
+        assertThat(MaskingUtils.maskBankCard("6222600012341234", new char[4])).isEqualTo(-1);
+    }
+
+    /**
+     * Measure the bytes allocated by each masker per operation, the String maskers allocate the result only
+     */
+    @Test
+    @Tag("benchmark")
+    public void testAllocation() {
+        char[] dest = new char[64];
+        StringBuilder sb = new StringBuilder(64);
+        Map<String, ToIntFunction<Object>> stringMaskers = new LinkedHashMap<>();
+        stringMaskers.put("chineseName", o -> MaskingUtils.maskChineseName("李小龙").length());
+        stringMaskers.put("idCard", o -> MaskingUtils.maskIdCard("420106199001015762").length());
+        stringMaskers.put("landlinePhone", o -> MaskingUtils.maskLandlinePhone("02161234567").length());
+        stringMaskers.put("mobilePhone", o -> MaskingUtils.maskMobilePhone("13812341234").length());
+        stringMaskers.put("address", o -> MaskingUtils.maskAddress("北京市海淀区中关村大街", 4).length());
+        stringMaskers.put("email", o -> MaskingUtils.maskEmail("guest@163.com").length());
+        stringMaskers.put("bankCard", o -> MaskingUtils.maskBankCard("6222600012341234").length());
+        stringMaskers.put("cnapsCode", o -> MaskingUtils.maskCnapsCode("1234567890").length());
+        Map<String, ToIntFunction<Object>> arrayMaskers = new LinkedHashMap<>();
+        arrayMaskers.put("chineseName", o -> MaskingUtils.maskChineseName("李小龙", dest));
+        arrayMaskers.put("idCard", o -> MaskingUtils.maskIdCard("420106199001015762", dest));
+        arrayMaskers.put("landlinePhone", o -> MaskingUtils.maskLandlinePhone("02161234567", dest));
+        arrayMaskers.put("mobilePhone", o -> MaskingUtils.maskMobilePhone("13812341234", dest));
+        arrayMaskers.put("address", o -> MaskingUtils.maskAddress("北京市海淀区中关村大街", 4, dest));
+        arrayMaskers.put("email", o -> MaskingUtils.maskEmail("guest@163.com", dest));
+        arrayMaskers.put("bankCard", o -> MaskingUtils.maskBankCard("6222600012341234", dest));
+        arrayMaskers.put("cnapsCode", o -> MaskingUtils.maskCnapsCode("1234567890", dest));
+        Map<String, ToIntFunction<Object>> builderMaskers = new LinkedHashMap<>();
+        builderMaskers.put("idCard", o -> MaskingUtils.maskIdCard("420106199001015762", resetBuilder(sb)).length());
+        builderMaskers.put("email", o -> MaskingUtils.maskEmail("guest@163.com", resetBuilder(sb)).length());
+
+        for (Map.Entry<String, ToIntFunction<Object>> entry : stringMaskers.entrySet()) {
+            log.info("{}: String {} bytes/op, char[] {} bytes/op", entry.getKey(),
+                    String.format("%.1f", measureAllocation(entry.getValue())),
+                    String.format("%.1f", measureAllocation(arrayMaskers.get(entry.getKey()))));
+            // Nothing but the result is allocated
+            assertThat(measureAllocation(arrayMaskers.get(entry.getKey()))).isLessThan(1);
+        }
+        for (Map.Entry<String, ToIntFunction<Object>> entry : builderMaskers.entrySet()) {
+            log.info("{}: StringBuilder {} bytes/op", entry.getKey(), String.format("%.1f", measureAllocation(entry.getValue())));
+            assertThat(measureAllocation(entry.getValue())).isLessThan(1);
+        }
+    }
+
+    private static StringBuilder resetBuilder(StringBuilder sb) {
+        sb.setLength(0);
+        return sb;
+    }
+
+    /**
+     * Measure the bytes allocated by the current thread per operation after warming up
+     */
+    private static double measureAllocation(ToIntFunction<Object> masker) {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        int operations = 1_000_000;
+        long sink = 0;
+        for (int i = 0; i < operations; i++) {
+            sink += masker.applyAsInt(null);
+        }
+        long bytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < operations; i++) {
+            sink += masker.applyAsInt(null);
+        }
+        double bytesPerOperation = (threadMXBean.getCurrentThreadAllocatedBytes() - bytes) / (double) operations;
+        assertThat(sink).isPositive();
+        return bytesPerOperation;
+    }
+}
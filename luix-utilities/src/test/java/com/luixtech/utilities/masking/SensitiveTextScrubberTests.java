@@ -0,0 +1,84 @@
+package com.luixtech.utilities.masking;
+
+import com.sun.management.ThreadMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+public class SensitiveTextScrubberTests {
+
+    @Test
+    public void testScrub() {
+        SensitiveTextScrubber scrubber = SensitiveTextScrubber.getDefault();
+        assertThat(scrubber.scrub("手机13812341234,邮箱guest@163.com."))
+                .isEqualTo("手机138****1234,邮箱g****@163.com.");
+        assertThat(scrubber.scrub("id=420106199001015769, card=6222600012341232, tel=021-61234567"))
+                .isEqualTo("id=420***********5769, card=622260******1232, tel=********4567");
+        assertThat(scrubber.scrub("id=11010519491231109x, old id=420106900101576"))
+                .isEqualTo("id=110***********109x, old id=420********1576");
+        // 与其他字母数字相连的数字不做处理
+        String text = "order13812341234 1381234123456";
+        assertThat(scrubber.scrub(text)).isSameAs(text);
+    }
+
+    @Test
+    public void testScrubNonSensitiveNumbers() {
+        SensitiveTextScrubber scrubber = SensitiveTextScrubber.getDefault();
+        // Snowflake ID, order number and trace ID without valid check digits or birth date
+        String text = "id=1790123456789012345 id=179012345678901234 orderNo=202410170001234567 traceId=8203456712345678";
+        assertThat(scrubber.scrub(text)).isSameAs(text);
+        // Nanosecond timestamp, ID card with wrong check digit, 15 digits with invalid birth date
+        text = "ts=1729123456789012345 id=420106199001015762 id=420106901301576 id=11010519491231108X";
+        assertThat(scrubber.scrub(text)).isSameAs(text);
+    }
+
+    @Test
+    public void testScrubStream() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append("user").append(i).append(" 13812341234 guest@163.com\n");
+        }
+        StringWriter writer = new StringWriter();
+        SensitiveTextScrubber.getDefault().scrub(new StringReader(sb.toString()), writer);
+        assertThat(writer.toString()).isEqualTo(SensitiveTextScrubber.getDefault().scrub(sb.toString()));
+        assertThat(writer.toString()).doesNotContain("13812341234").doesNotContain("guest@");
+    }
+
+    /**
+     * Measure the time and the bytes allocated to scrub a log line with four sensitive words
+     */
+    @Test
+    @Tag("benchmark")
+    public void testScrubAllocation() {
+        SensitiveTextScrubber scrubber = SensitiveTextScrubber.getDefault();
+        String line = "2024-10-17 12:00:00.123 INFO [main] c.l.OrderService - Created order 202410170001 for user " +
+                "13812341234, email guest@163.com, card 6222600012341232, id 420106199001015769";
+        StringBuilder sb = new StringBuilder(line.length());
+        int operations = 1_000_000;
+        for (int round = 0; round < 5; round++) {
+            ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long bytes = threadMXBean.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            int masked = 0;
+            for (int i = 0; i < operations; i++) {
+                sb.setLength(0);
+                sb.append(line);
+                if (scrubber.scrub(sb, 0)) {
+                    masked++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            bytes = threadMXBean.getCurrentThreadAllocatedBytes() - bytes;
+            assertThat(masked).isEqualTo(operations);
+            log.info("Scrub a log line in place: {}ns and {} bytes", elapsed / operations, bytes / operations);
+        }
+        assertThat(sb.toString()).contains("138****1234", "g****@163.com", "622260******1232", "420***********5769");
+    }
+}
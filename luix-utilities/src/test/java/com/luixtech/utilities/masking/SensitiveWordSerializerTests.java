@@ -0,0 +1,96 @@
+package com.luixtech.utilities.masking;
+
+import com.luixtech.utilities.masking.annotation.SensitiveField;
+import com.luixtech.utilities.masking.annotation.SensitiveType;
+import com.luixtech.utilities.thread.RequestContext;
+import com.sun.management.ThreadMXBean;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+public class SensitiveWordSerializerTests {
+    private static final JsonMapper MAPPER = JsonMapper.builder().build();
+    private static final User       USER   = new User("李小龙", "13812341234", "guest@163.com", "6222600012341232", "remark");
+
+    @Test
+    public void testMask() {
+        // Masking is enabled by default
+        assertThat(MAPPER.writeValueAsString(USER)).isEqualTo("{\"bankCard\":\"622260******1232\",\"email\":\"g****@163.com\"," +
+                "\"mobile\":\"138****1234\",\"name\":\"李**\",\"remark\":\"remark\"}");
+    }
+
+    @Test
+    public void testMaskEnabledAttribute() throws Exception {
+        ObjectWriter unmaskedWriter = MAPPER.writer().withAttribute(SensitiveWordSerializer.MASK_ENABLED_ATTRIBUTE, false);
+        assertThat(unmaskedWriter.writeValueAsString(USER)).contains("\"13812341234\"", "\"guest@163.com\"");
+        // The attribute takes precedence over the request context
+        ObjectWriter maskedWriter = MAPPER.writer().withAttribute(SensitiveWordSerializer.MASK_ENABLED_ATTRIBUTE, true);
+        assertThat(RequestContext.of(null, false, null).call(() -> maskedWriter.writeValueAsString(USER)))
+                .contains("\"138****1234\"");
+    }
+
+    @Test
+    public void testMaskDisabledByRequestContext() throws Exception {
+        // The cached serializer decides whether to mask at write time
+        assertThat(MAPPER.writeValueAsString(USER)).contains("\"138****1234\"");
+        assertThat(RequestContext.of(null, false, null).call(() -> MAPPER.writeValueAsString(USER)))
+                .contains("\"13812341234\"", "\"李小龙\"");
+        assertThat(MAPPER.writeValueAsString(USER)).contains("\"138****1234\"");
+    }
+
+    /**
+     * Measure the time and the bytes allocated to serialize an object with four sensitive fields
+     */
+    @Test
+    @Tag("benchmark")
+    public void testSerialization() throws Exception {
+        ObjectWriter maskedWriter = MAPPER.writer().withAttribute(SensitiveWordSerializer.MASK_ENABLED_ATTRIBUTE, true);
+        ObjectWriter unmaskedWriter = MAPPER.writer().withAttribute(SensitiveWordSerializer.MASK_ENABLED_ATTRIBUTE, false);
+        int operations = 500_000;
+        for (int round = 0; round < 5; round++) {
+            long[] masked = measure(maskedWriter, operations);
+            long[] unmasked = measure(unmaskedWriter, operations);
+            log.info("Serialize a user: masked {}ns and {} bytes, unmasked {}ns and {} bytes",
+                    masked[0] / operations, masked[1] / operations, unmasked[0] / operations, unmasked[1] / operations);
+        }
+    }
+
+    /**
+     * Serialize the user and return the elapsed nanoseconds and the bytes allocated by the current thread
+     */
+    private static long[] measure(ObjectWriter writer, int operations) {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        long length = 0;
+        for (int i = 0; i < operations; i++) {
+            length += writer.writeValueAsBytes(USER).length;
+        }
+        long[] result = {System.nanoTime() - start, threadMXBean.getCurrentThreadAllocatedBytes() - bytes};
+        assertThat(length).isPositive();
+        return result;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class User {
+        @SensitiveField(SensitiveType.CHINESE_NAME)
+        private String name;
+        @SensitiveField(SensitiveType.MOBILE_PHONE)
+        private String mobile;
+        @SensitiveField(SensitiveType.EMAIL)
+        private String email;
+        @SensitiveField(SensitiveType.BANK_CARD)
+        private String bankCard;
+        private String remark;
+    }
+}
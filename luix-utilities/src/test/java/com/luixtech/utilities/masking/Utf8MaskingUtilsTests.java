@@ -0,0 +1,114 @@
+package com.luixtech.utilities.masking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@Slf4j
+public class Utf8MaskingUtilsTests {
+
+    @Test
+    public void testMask() {
+        String json = "{\"name\":\"李小龙\",\"mobile\":\"13812341234\",\"idCard\":\"420106199001015769\","
+                + "\"email\":\"guest@163.com\",\"tel\":\"021-61234567\",\"card\":\"6222600012341232\",\"orderNo\":\"A13812341234\"}";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        assertThat(Utf8MaskingUtils.mask(bytes)).isEqualTo(5);
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo(SensitiveTextScrubber.getDefault().scrub(json));
+        assertThat(new String(bytes, StandardCharsets.UTF_8))
+                .contains("\"138****1234\"", "\"420***********5769\"", "\"g****@163.com\"", "\"********4567\"",
+                        "\"622260******1232\"", "\"A13812341234\"", "李小龙");
+    }
+
+    @Test
+    public void testMaskNonSensitiveNumbers() {
+        String json = "{\"id\":1790123456789012345,\"orderNo\":\"202410170001234567\",\"timestamp\":1729123456789012345,"
+                + "\"traceId\":\"8203456712345678\",\"idCard\":\"420106199001015762\",\"oldIdCard\":\"420106901301576\"}";
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        assertThat(Utf8MaskingUtils.mask(bytes)).isZero();
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo(json);
+    }
+
+    @Test
+    public void testVectorizedScan() {
+        assumeTrue(Utf8MaskingUtils.VECTORIZED, "Vector API is unavailable");
+        byte[] swar = createJson(1000, new Random(1)).getBytes(StandardCharsets.UTF_8);
+        byte[] vectorized = swar.clone();
+        // Start at each offset, so the sensitive words cross the vector boundaries
+        for (int offset = 0; offset < 64; offset++) {
+            int swarCount = Utf8MaskingUtils.mask(MemorySegment.ofArray(swar), offset, swar.length, false);
+            int vectorizedCount = Utf8MaskingUtils.mask(MemorySegment.ofArray(vectorized), offset, vectorized.length, true);
+            assertThat(vectorizedCount).isEqualTo(swarCount);
+        }
+        assertThat(vectorized).isEqualTo(swar);
+    }
+
+    /**
+     * Compare masking a multi-megabyte JSON export in place with decoding it, masking it by {@link MaskingUtils}
+     * through {@link SensitiveTextScrubber} and encoding it again
+     */
+    @Test
+    @Tag("benchmark")
+    public void testCompareWithMaskingUtils() {
+        byte[] json = createJson(50_000, new Random(1)).getBytes(StandardCharsets.UTF_8);
+        SensitiveTextScrubber scrubber = SensitiveTextScrubber.getDefault();
+        byte[] expected = scrubber.scrub(new String(json, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+        for (int round = 0; round < 5; round++) {
+            long start = System.nanoTime();
+            byte[] scrubbed = scrubber.scrub(new String(json, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+            long scrubberNanos = System.nanoTime() - start;
+
+            byte[] swar = json.clone();
+            start = System.nanoTime();
+            Utf8MaskingUtils.mask(MemorySegment.ofArray(swar), 0, swar.length, false);
+            long swarNanos = System.nanoTime() - start;
+
+            long vectorizedNanos = 0;
+            if (Utf8MaskingUtils.VECTORIZED) {
+                byte[] vectorized = json.clone();
+                start = System.nanoTime();
+                Utf8MaskingUtils.mask(MemorySegment.ofArray(vectorized), 0, vectorized.length, true);
+                vectorizedNanos = System.nanoTime() - start;
+                assertThat(vectorized).isEqualTo(expected);
+            }
+            assertThat(scrubbed).isEqualTo(expected);
+            assertThat(swar).isEqualTo(expected);
+            log.info("{} MB: decode, scrub and encode {} MB/s, UTF-8 SWAR {} MB/s, UTF-8 vector {} MB/s",
+                    json.length >> 20, megabytesPerSecond(json.length, scrubberNanos),
+                    megabytesPerSecond(json.length, swarNanos), megabytesPerSecond(json.length, vectorizedNanos));
+        }
+    }
+
+    /**
+     * Create the JSON array of the orders, most of whose bytes are neither digits nor '@' like a typical export
+     */
+    private static String createJson(int count, Random random) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            char[] remark = new char[20 + random.nextInt(100)];
+            Arrays.fill(remark, "买家留言：请尽快发货，谢谢".charAt(random.nextInt(13)));
+            sb.append("{\"name\":\"李小龙\",\"remark\":\"").append(remark)
+                    .append("\",\"description\":\"Deliver to the front desk of the building before noon\",");
+            switch (i % 4) {
+                case 0 -> sb.append("\"mobile\":\"138").append(10_000_000 + random.nextInt(90_000_000)).append('"');
+                case 1 -> sb.append("\"email\":\"guest").append(i).append("@163.com\"");
+                case 2 -> sb.append("\"tel\":\"021-6").append(1_000_000 + random.nextInt(9_000_000)).append('"');
+                default -> sb.append("\"idCard\":\"420106199001015769\"");
+            }
+            sb.append("},");
+        }
+        sb.setCharAt(sb.length() - 1, ']');
+        return sb.toString();
+    }
+
+    private static long megabytesPerSecond(long bytes, long nanos) {
+        return nanos == 0 ? 0 : bytes * 1_000_000_000L / nanos >> 20;
+    }
+}
@@ -0,0 +1,62 @@
+package com.luixtech.utilities.masking.logback;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MaskingMessageConverterTests {
+    private final LoggerContext           loggerContext = new LoggerContext();
+    private final MaskingMessageConverter converter     = new MaskingMessageConverter();
+
+    @BeforeEach
+    public void setUp() {
+        converter.start();
+    }
+
+    @Test
+    public void testSkipWithoutSensitiveWords() {
+        LoggingEvent event = createEvent("User {} logged in from {}", 123456, "10.0.0.1");
+        // The formatted message is returned as it is without being copied
+        assertThat(converter.convert(event)).isSameAs(event.getFormattedMessage()).isEqualTo("User 123456 logged in from 10.0.0.1");
+        // Digit sequence long enough but NOT sensitive
+        LoggingEvent orderEvent = createEvent("Order 1381234123456 created");
+        assertThat(converter.convert(orderEvent)).isSameAs(orderEvent.getFormattedMessage());
+    }
+
+    @Test
+    public void testMaskArguments() {
+        assertThat(converter.convert(createEvent("Registered {} with {}", "13812341234", "guest@163.com")))
+                .isEqualTo("Registered 138****1234 with g****@163.com");
+        assertThat(converter.convert(createEvent("手机13812341234")))
+                .isEqualTo("手机138****1234");
+    }
+
+    @Test
+    public void testReuseBuffer() {
+        String padding = "x".repeat(1000);
+        assertThat(converter.convert(createEvent(padding + " 13812341234")))
+                .isEqualTo(padding + " 138****1234");
+        // The shorter message reusing the buffer does NOT contain the rest of the previous one
+        assertThat(converter.convert(createEvent("tel 13912345678"))).isEqualTo("tel 139****5678");
+
+        // The buffer exceeding the maximum capacity is discarded
+        String longPadding = "y".repeat(10_000);
+        assertThat(converter.convert(createEvent(longPadding + " guest@163.com")))
+                .isEqualTo(longPadding + " g****@163.com");
+        assertThat(converter.convert(createEvent("mail guest@163.com"))).isEqualTo("mail g****@163.com");
+    }
+
+    @Test
+    public void testNullMessage() {
+        assertThat(converter.convert(createEvent(null))).isNull();
+    }
+
+    private LoggingEvent createEvent(String message, Object... arguments) {
+        return new LoggingEvent(MaskingMessageConverterTests.class.getName(), loggerContext.getLogger("test"),
+                Level.INFO, message, null, arguments);
+    }
+}
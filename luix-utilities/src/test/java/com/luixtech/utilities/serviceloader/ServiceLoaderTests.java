@@ -1,11 +1,29 @@
 package com.luixtech.utilities.serviceloader;
 
+import com.luixtech.utilities.serviceloader.annotation.Spi;
+import com.luixtech.utilities.serviceloader.annotation.SpiScope;
+import com.luixtech.utilities.serviceloader.testservice.SpiLazyInterface;
 import com.luixtech.utilities.serviceloader.testservice.SpiPrototypeInterface;
 import com.luixtech.utilities.serviceloader.testservice.SpiSingletonInterface;
+import com.luixtech.utilities.serviceloader.testservice.impl.SpiPrototypeImpl;
+import com.sun.management.ThreadMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
+@Slf4j
 public class ServiceLoaderTests {
 
     @Test
@@ -33,4 +51,214 @@ public class ServiceLoaderTests {
         assertThat(ServiceLoader.forClass(SpiSingletonInterface.class)
                 .load("单例").spiHello()).isEqualTo(1);
     }
+
+    @Test
+    public void testLazyInitialization() {
+        ServiceLoader<SpiLazyInterface> loader = ServiceLoader.forClass(SpiLazyInterface.class);
+        // 懒加载模式下创建加载器时不会初始化实现类
+        assertThat(loader.getSpiNames()).containsExactlyInAnyOrder("lazyOne", "lazyTwo");
+        assertThat(SpiLazyInterface.INITIALIZED_CLASSES).isEmpty();
+
+        assertThat(loader.load("lazyOne").spiHello()).isEqualTo("lazyOne");
+        assertThat(SpiLazyInterface.INITIALIZED_CLASSES).containsExactly("SpiLazyOneImpl");
+
+        assertThat(loader.loadAll()).hasSize(2);
+        assertThat(SpiLazyInterface.INITIALIZED_CLASSES).containsExactlyInAnyOrder("SpiLazyOneImpl", "SpiLazyTwoImpl");
+    }
+
+    @Test
+    public void testWarmUp() {
+        Map<String, Duration> elapsedTimes = ServiceLoader.warmUp(SpiSingletonInterface.class, SpiPrototypeInterface.class);
+        assertThat(elapsedTimes).containsOnlyKeys(
+                SpiSingletonInterface.class.getName() + "#singleton",
+                SpiSingletonInterface.class.getName() + "#单例",
+                SpiPrototypeInterface.class.getName() + "#prototype");
+        // 预热后单例已经创建
+        assertThat(ServiceLoader.forClass(SpiSingletonInterface.class).load("singleton").spiHello()).isEqualTo(1);
+    }
+
+    @Test
+    public void testConcurrentLookup() throws Exception {
+        int threads = 64;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        Set<ServiceLoader<?>> loaders = ConcurrentHashMap.newKeySet();
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int i = 0; i < threads; i++) {
+                futures[i] = executor.submit(() -> {
+                    startLatch.await();
+                    for (int j = 0; j < 10_000; j++) {
+                        loaders.add(ServiceLoader.forClass(SpiSingletonInterface.class));
+                    }
+                    return null;
+                });
+            }
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        // 所有线程拿到的是同一个加载器
+        assertThat(loaders).hasSize(1);
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testClassLoaderCanBeReclaimed() throws Exception {
+        ClassLoader redeployedClassLoader = new ChildFirstClassLoader(getClass().getClassLoader());
+        Class serviceInterface = redeployedClassLoader.loadClass(SpiSingletonInterface.class.getName());
+        // 不同类加载器下的同名接口不会共用加载器
+        assertThat(serviceInterface).isNotEqualTo(SpiSingletonInterface.class);
+        assertThat(ServiceLoader.forClass(serviceInterface)).isNotSameAs(ServiceLoader.forClass(SpiSingletonInterface.class));
+        assertThat(ServiceLoader.forClass(serviceInterface).load("singleton")).isNotNull();
+
+        WeakReference<ClassLoader> classLoaderRef = new WeakReference<>(redeployedClassLoader);
+        redeployedClassLoader = null;
+        serviceInterface = null;
+        for (int i = 0; i < 50 && classLoaderRef.get() != null; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        // 卸载的类加载器不会被缓存持有
+        assertThat(classLoaderRef.get()).isNull();
+    }
+
+    /**
+     * Compare creating the service loader from the SPI index with reading and validating the service configuration file.
+     * Each service loader is created in a fresh class loader, which also defines its own ServiceLoader class reading
+     * the system property of the index.
+     */
+    @Test
+    @Tag("benchmark")
+    public void testSpiIndexLoading() throws Exception {
+        int loaders = 500;
+        String indexEnabled = System.getProperty(ServiceLoader.SPI_INDEX_ENABLED_PROPERTY);
+        try {
+            for (int round = 0; round < 5; round++) {
+                long indexNanos = createServiceLoaders(loaders, true);
+                long serviceFileNanos = createServiceLoaders(loaders, false);
+                log.info("Create a service loader: SPI index {}us, service configuration file {}us",
+                        indexNanos / loaders / 1000, serviceFileNanos / loaders / 1000);
+            }
+        } finally {
+            if (indexEnabled == null) {
+                System.clearProperty(ServiceLoader.SPI_INDEX_ENABLED_PROPERTY);
+            } else {
+                System.setProperty(ServiceLoader.SPI_INDEX_ENABLED_PROPERTY, indexEnabled);
+            }
+        }
+    }
+
+    /**
+     * Compare loading the prototype instances by the cached instance factory with reading the annotation and looking up
+     * the constructor for each instance. The test services are defined in fresh class loaders, so the instance counter
+     * of the other tests is NOT affected. The instance factory of the classes defined by another class loader than
+     * the one of ServiceLoader invokes the cached constructor by reflection.
+     */
+    @Test
+    @Tag("benchmark")
+    public void testPrototypeLoading() throws Exception {
+        ClassLoader sameClassLoader = new ChildFirstClassLoader(getClass().getClassLoader(), ServiceLoader.class.getPackageName());
+        ClassLoader otherClassLoader = new ChildFirstClassLoader(getClass().getClassLoader());
+        Callable<Object> sameLoader = createPrototypeLoader(Class.forName(ServiceLoader.class.getName(), true, sameClassLoader),
+                Class.forName(SpiPrototypeInterface.class.getName(), true, sameClassLoader));
+        Callable<Object> otherLoader = createPrototypeLoader(ServiceLoader.class,
+                Class.forName(SpiPrototypeInterface.class.getName(), true, otherClassLoader));
+        Class<?> serviceInterface = Class.forName(SpiPrototypeInterface.class.getName(), true, otherClassLoader);
+        Class<?> implClass = Class.forName(SpiPrototypeImpl.class.getName(), true, otherClassLoader);
+        int operations = 1_000_000;
+        for (int round = 0; round < 5; round++) {
+            long[] lambdaFactory = measure(operations, sameLoader);
+            long[] constructorFactory = measure(operations, otherLoader);
+            long[] reflection = measure(operations, () -> serviceInterface.getAnnotation(Spi.class).scope() == SpiScope.PROTOTYPE
+                    ? implClass.getDeclaredConstructor().newInstance() : null);
+            log.info("Load a prototype instance: lambda factory {}ns and {} bytes, cached constructor {}ns and {} bytes, " +
+                            "reflection {}ns and {} bytes", lambdaFactory[0] / operations, lambdaFactory[1] / operations,
+                    constructorFactory[0] / operations, constructorFactory[1] / operations,
+                    reflection[0] / operations, reflection[1] / operations);
+        }
+    }
+
+    private static Callable<Object> createPrototypeLoader(Class<?> serviceLoaderClass, Class<?> serviceInterface) throws Exception {
+        Object serviceLoader = serviceLoaderClass.getMethod("forClass", Class.class).invoke(null, serviceInterface);
+        Method load = serviceLoaderClass.getMethod("load", String.class);
+        return () -> load.invoke(serviceLoader, "prototype");
+    }
+
+    /**
+     * Run the operations and return the elapsed nanoseconds and the bytes allocated by the current thread
+     */
+    private static long[] measure(int operations, Callable<Object> operation) throws Exception {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        int loaded = 0;
+        for (int i = 0; i < operations; i++) {
+            if (operation.call() != null) {
+                loaded++;
+            }
+        }
+        long[] result = {System.nanoTime() - start, threadMXBean.getCurrentThreadAllocatedBytes() - bytes};
+        assertThat(loaded).isEqualTo(operations);
+        return result;
+    }
+
+    private long createServiceLoaders(int loaders, boolean indexEnabled) throws Exception {
+        System.setProperty(ServiceLoader.SPI_INDEX_ENABLED_PROPERTY, String.valueOf(indexEnabled));
+        long elapsed = 0;
+        for (int i = 0; i < loaders; i++) {
+            ClassLoader classLoader = new ChildFirstClassLoader(getClass().getClassLoader(), ServiceLoader.class.getPackageName());
+            Class<?> serviceInterface = Class.forName(SpiPrototypeInterface.class.getName(), true, classLoader);
+            Method forClass = Class.forName(ServiceLoader.class.getName(), true, classLoader).getMethod("forClass", Class.class);
+            long start = System.nanoTime();
+            Object serviceLoader = forClass.invoke(null, serviceInterface);
+            elapsed += System.nanoTime() - start;
+            assertThat(serviceLoader.getClass().getMethod("getSpiNames").invoke(serviceLoader)).isEqualTo(Set.of("prototype"));
+        }
+        return elapsed;
+    }
+
+    /**
+     * Simulates the class loader of a redeployed application, which defines its own copy of the test services
+     */
+    private static class ChildFirstClassLoader extends ClassLoader {
+        private final String packagePrefix;
+
+        private ChildFirstClassLoader(ClassLoader parent) {
+            this(parent, SpiSingletonInterface.class.getPackageName());
+        }
+
+        private ChildFirstClassLoader(ClassLoader parent, String packagePrefix) {
+            super(parent);
+            this.packagePrefix = packagePrefix;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith(packagePrefix)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> clazz = findLoadedClass(name);
+                if (clazz == null) {
+                    try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        if (in == null) {
+                            throw new ClassNotFoundException(name);
+                        }
+                        byte[] bytes = in.readAllBytes();
+                        clazz = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                if (resolve) {
+                    resolveClass(clazz);
+                }
+                return clazz;
+            }
+        }
+    }
 }
@@ -0,0 +1,122 @@
+package com.luixtech.utilities.serviceloader.processor;
+
+import com.luixtech.utilities.serviceloader.ServiceLoader;
+import com.luixtech.utilities.serviceloader.annotation.Spi;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.*;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SpiIndexProcessorTests {
+    private static final String SERVICE_INTERFACE = "com.example.Codec";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testIndexListedClassesOnly() throws IOException {
+        writeServiceConfigFile("com.example.JsonCodec\n# comment\ncom.example.Outer$XmlCodec\n");
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        assertThat(compile(diagnostics)).isTrue();
+        // The unlisted ProtobufCodec is NOT indexed
+        assertThat(Files.readAllLines(dir.resolve("classes").resolve(ServiceLoader.SPI_INDEX_DIR_PREFIX + SERVICE_INTERFACE)))
+                .filteredOn(line -> !line.startsWith("#"))
+                .containsExactly("json=com.example.JsonCodec", "xml=com.example.Outer$XmlCodec");
+    }
+
+    @Test
+    public void testFailOnInvalidListedClass() throws IOException {
+        writeServiceConfigFile("com.example.JsonCodec\ncom.example.MissingCodec\ncom.example.AbstractCodec\n");
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        assertThat(compile(diagnostics)).isFalse();
+        assertThat(diagnostics.getDiagnostics())
+                .filteredOn(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                .extracting(d -> d.getMessage(null))
+                .anySatisfy(message -> assertThat(message).contains("com.example.MissingCodec").contains("can NOT be found"))
+                .anySatisfy(message -> assertThat(message).contains("com.example.AbstractCodec").contains("concrete"));
+        assertThat(dir.resolve("classes").resolve(ServiceLoader.SPI_INDEX_DIR_PREFIX + SERVICE_INTERFACE)).doesNotExist();
+    }
+
+    @Test
+    public void testSkipWithoutServiceConfigFile() throws IOException {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+
+        assertThat(compile(diagnostics)).isTrue();
+        assertThat(dir.resolve("classes").resolve(ServiceLoader.SPI_INDEX_DIR_PREFIX + SERVICE_INTERFACE)).doesNotExist();
+    }
+
+    private void writeServiceConfigFile(String content) throws IOException {
+        Path file = dir.resolve("classes").resolve("META-INF/services/" + SERVICE_INTERFACE);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The java.class.path of the test runner may NOT contain the annotations, e.g. the manifest-only jar of surefire
+     */
+    private static String getClassPath() {
+        try {
+            return Path.of(Spi.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private boolean compile(DiagnosticCollector<JavaFileObject> diagnostics) throws IOException {
+        Path sources = dir.resolve("sources/com/example");
+        Files.createDirectories(sources);
+        Files.createDirectories(dir.resolve("classes"));
+        Files.writeString(sources.resolve("Codec.java"), """
+                package com.example;
+                @com.luixtech.utilities.serviceloader.annotation.Spi
+                public interface Codec {
+                }
+                """);
+        Files.writeString(sources.resolve("JsonCodec.java"), """
+                package com.example;
+                @com.luixtech.utilities.serviceloader.annotation.SpiName("json")
+                public class JsonCodec implements Codec {
+                }
+                """);
+        Files.writeString(sources.resolve("ProtobufCodec.java"), """
+                package com.example;
+                public class ProtobufCodec implements Codec {
+                }
+                """);
+        Files.writeString(sources.resolve("AbstractCodec.java"), """
+                package com.example;
+                public abstract class AbstractCodec implements Codec {
+                }
+                """);
+        Files.writeString(sources.resolve("Outer.java"), """
+                package com.example;
+                public class Outer {
+                    @com.luixtech.utilities.serviceloader.annotation.SpiName("xml")
+                    public static class XmlCodec implements Codec {
+                    }
+                }
+                """);
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            List<String> options = List.of("-d", dir.resolve("classes").toString(),
+                    "-cp", getClassPath(), "-proc:full");
+            try (var files = Files.list(sources)) {
+                JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, options, null,
+                        fileManager.getJavaFileObjectsFromPaths(files.toList()));
+                task.setProcessors(List.of(new SpiIndexProcessor()));
+                return task.call();
+            }
+        }
+    }
+}
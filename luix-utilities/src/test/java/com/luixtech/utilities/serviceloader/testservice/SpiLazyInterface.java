@@ -0,0 +1,17 @@
+package com.luixtech.utilities.serviceloader.testservice;
+
+import com.luixtech.utilities.serviceloader.annotation.Spi;
+import com.luixtech.utilities.serviceloader.annotation.SpiScope;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Spi(scope = SpiScope.SINGLETON, lazy = true)
+public interface SpiLazyInterface {
+    /**
+     * Names of the initialized implementation classes
+     */
+    Set<String> INITIALIZED_CLASSES = ConcurrentHashMap.newKeySet();
+
+    String spiHello();
+}
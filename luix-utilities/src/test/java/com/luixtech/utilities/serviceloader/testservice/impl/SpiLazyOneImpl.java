@@ -0,0 +1,18 @@
+package com.luixtech.utilities.serviceloader.testservice.impl;
+
+import com.luixtech.utilities.serviceloader.annotation.SpiName;
+import com.luixtech.utilities.serviceloader.testservice.SpiLazyInterface;
+
+@SpiName("lazyOne")
+public class SpiLazyOneImpl implements SpiLazyInterface {
+
+    static {
+        INITIALIZED_CLASSES.add(SpiLazyOneImpl.class.getSimpleName());
+    }
+
+    @Override
+    public String spiHello() {
+        return "lazyOne";
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.luixtech.utilities.serviceloader.testservice.impl;
+
+import com.luixtech.utilities.serviceloader.annotation.SpiName;
+import com.luixtech.utilities.serviceloader.testservice.SpiLazyInterface;
+
+@SpiName("lazyTwo")
+public class SpiLazyTwoImpl implements SpiLazyInterface {
+
+    static {
+        INITIALIZED_CLASSES.add(SpiLazyTwoImpl.class.getSimpleName());
+    }
+
+    @Override
+    public String spiHello() {
+        return "lazyTwo";
+    }
+
+}
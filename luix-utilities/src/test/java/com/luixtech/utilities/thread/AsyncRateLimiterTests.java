@@ -0,0 +1,125 @@
+package com.luixtech.utilities.thread;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AsyncRateLimiterTests {
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "async-rate-limiter-test"));
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testAcquire() throws Exception {
+        AsyncRateLimiter rateLimiter = new AsyncRateLimiter(new RateLimiter(100), executor);
+        long start = System.nanoTime();
+        // The first permit is available immediately
+        assertThat(rateLimiter.acquire().isDone()).isTrue();
+        CompletableFuture<String> thread = null;
+        for (int i = 0; i < 10; i++) {
+            thread = rateLimiter.acquire().thenApply(v -> Thread.currentThread().getName());
+        }
+        // The dependent stages run on the executor after waiting
+        assertThat(thread.get(5, TimeUnit.SECONDS)).isEqualTo("async-rate-limiter-test");
+        // 10 permits after the first one at 10ms intervals, the lower bound does NOT depend on the machine load
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(95);
+    }
+
+    @Test
+    public void testTryAcquire() throws Exception {
+        AsyncRateLimiter rateLimiter = new AsyncRateLimiter(new RateLimiter(10), executor);
+        assertThat(rateLimiter.tryAcquire(1, 0, TimeUnit.MILLISECONDS).get()).isTrue();
+        // The next permit is available after 100ms
+        CompletableFuture<Boolean> rejected = rateLimiter.tryAcquire(1, 10, TimeUnit.MILLISECONDS);
+        assertThat(rejected.isDone()).isTrue();
+        assertThat(rejected.get()).isFalse();
+        assertThat(rateLimiter.tryAcquire(1, 1, TimeUnit.SECONDS).get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void testRejectedByExecutor() {
+        ExecutorService shutdown = Executors.newSingleThreadExecutor();
+        shutdown.shutdown();
+        AsyncRateLimiter rateLimiter = new AsyncRateLimiter(new RateLimiter(100), shutdown);
+        rateLimiter.acquire();
+        assertThatThrownBy(() -> rateLimiter.acquire().get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    public void testForEachConsumeAfterPermit() throws Exception {
+        AsyncRateLimiter rateLimiter = new AsyncRateLimiter(new RateLimiter(10), executor);
+        AtomicInteger consumed = new AtomicInteger();
+        Iterator<Integer> items = countingIterator(3, consumed);
+
+        CompletableFuture<Void> result = rateLimiter.forEach(items, item -> CompletableFuture.completedFuture(null));
+        // The second item is NOT consumed until its permit is available after 100ms
+        assertThat(consumed.get()).isEqualTo(1);
+        result.get(5, TimeUnit.SECONDS);
+        assertThat(consumed.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testForEachFailure() {
+        AsyncRateLimiter rateLimiter = new AsyncRateLimiter(new RateLimiter(1000), executor);
+        AtomicInteger consumed = new AtomicInteger();
+        Iterator<Integer> items = countingIterator(100, consumed);
+
+        CompletableFuture<Void> result = rateLimiter.forEach(items, item -> item == 2
+                ? CompletableFuture.failedFuture(new IllegalStateException("Failed to process " + item))
+                : CompletableFuture.completedFuture(null));
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        // No more items are consumed after the failure
+        assertThat(consumed.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void testForEachStream() throws Exception {
+        AsyncRateLimiter rateLimiter = new AsyncRateLimiter(new RateLimiter(1000, 10), executor);
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        AtomicBoolean closed = new AtomicBoolean();
+        Stream<Integer> items = IntStream.range(0, 20).boxed().onClose(() -> closed.set(true));
+
+        rateLimiter.forEach(items, item -> CompletableFuture.runAsync(() -> processed.add(item), executor))
+                .get(5, TimeUnit.SECONDS);
+        assertThat(processed).hasSize(20);
+        assertThat(closed).isTrue();
+
+        AtomicBoolean failedClosed = new AtomicBoolean();
+        Stream<Integer> failedItems = Stream.of(1, 2).onClose(() -> failedClosed.set(true));
+        assertThatThrownBy(() -> rateLimiter.forEach(failedItems,
+                item -> CompletableFuture.failedFuture(new IllegalStateException())).get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(failedClosed).isTrue();
+    }
+
+    /**
+     * Iterator counting the consumed items, the iterator of a stream may consume the item in hasNext()
+     */
+    private static Iterator<Integer> countingIterator(int size, AtomicInteger consumed) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return consumed.get() < size;
+            }
+
+            @Override
+            public Integer next() {
+                return consumed.getAndIncrement();
+            }
+        };
+    }
+}
@@ -0,0 +1,178 @@
+package com.luixtech.utilities.thread;
+
+import com.luixtech.utilities.thread.pool.NetworkThreadPoolExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+public class BatchingExecutorTests {
+
+    @Test
+    public void testBatch() throws Exception {
+        List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+        NetworkThreadPoolExecutor executor = new NetworkThreadPoolExecutor(1, 1, 10);
+        BatchingExecutor<Integer, Integer> batchingExecutor = new BatchingExecutor<>(keys -> {
+            batchSizes.add(keys.size());
+            return keys.stream().collect(Collectors.toMap(Function.identity(), k -> k * 2));
+        }, executor, 100, 50, TimeUnit.MILLISECONDS, 1000);
+
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            futures.add(batchingExecutor.submit(i));
+        }
+        // Coalesced with the key 249 of the last batch
+        CompletableFuture<Integer> duplicate = batchingExecutor.submit(249);
+        for (int i = 0; i < 250; i++) {
+            assertThat(futures.get(i).get(1, TimeUnit.SECONDS)).isEqualTo(i * 2);
+        }
+        assertThat(duplicate.get(1, TimeUnit.SECONDS)).isEqualTo(498);
+        // The last batch is flushed after the delay
+        assertThat(batchSizes).containsExactly(100, 100, 50);
+        assertThat(batchingExecutor.getBatchCount()).isEqualTo(3);
+        assertThat(batchingExecutor.getPendingCount()).isZero();
+
+        batchingExecutor.close();
+        assertThatThrownBy(() -> batchingExecutor.submit(1)).isInstanceOf(RejectedExecutionException.class);
+        executor.shutdown();
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        CountDownLatch downstream = new CountDownLatch(1);
+        NetworkThreadPoolExecutor executor = new NetworkThreadPoolExecutor(2, 2);
+        BatchingExecutor<Integer, Integer> batchingExecutor = new BatchingExecutor<>(keys -> {
+            try {
+                downstream.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.emptyMap();
+        }, executor, 1, 0, TimeUnit.MILLISECONDS, 2);
+
+        CompletableFuture<Integer> first = batchingExecutor.submit(1);
+        CompletableFuture<Integer> second = batchingExecutor.submit(2);
+        assertThat(batchingExecutor.getPendingCount()).isEqualTo(2);
+        assertThatThrownBy(() -> batchingExecutor.trySubmit(3, 10, TimeUnit.MILLISECONDS))
+                .isInstanceOf(RejectedExecutionException.class);
+
+        downstream.countDown();
+        assertThat(first.get(1, TimeUnit.SECONDS)).isNull();
+        assertThat(second.get(1, TimeUnit.SECONDS)).isNull();
+        assertThat(batchingExecutor.trySubmit(3, 1, TimeUnit.SECONDS).get(1, TimeUnit.SECONDS)).isNull();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testException() throws Exception {
+        NetworkThreadPoolExecutor executor = new NetworkThreadPoolExecutor(1, 1);
+        BatchingExecutor<Integer, Integer> batchingExecutor = new BatchingExecutor<>(keys -> {
+            throw new IllegalStateException("Downstream error");
+        }, executor, 10, 1, TimeUnit.MILLISECONDS, 100);
+
+        CompletableFuture<Integer> future = batchingExecutor.submit(1);
+        assertThatThrownBy(() -> future.get(1, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(batchingExecutor.getPendingCount()).isZero();
+        executor.shutdown();
+    }
+
+    @Test
+    public void testTimedFlushInCallerThread() throws Exception {
+        // The executor runs the batches in the calling thread, e.g. with the caller runs policy
+        Executor executor = Runnable::run;
+        List<Thread> batchThreads = new CopyOnWriteArrayList<>();
+        BatchingExecutor<Integer, Integer> batchingExecutor = new BatchingExecutor<>(keys -> {
+            batchThreads.add(Thread.currentThread());
+            return keys.stream().collect(Collectors.toMap(Function.identity(), Function.identity()));
+        }, executor, 2, 10, TimeUnit.MILLISECONDS, 10);
+
+        // Flushed for the size in the submitting thread
+        batchingExecutor.submit(1);
+        assertThat(batchingExecutor.submit(2).get(1, TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(batchThreads).containsExactly(Thread.currentThread());
+
+        // Flushed after the delay by a virtual thread instead of the shared scheduler thread
+        assertThat(batchingExecutor.submit(3).get(1, TimeUnit.SECONDS)).isEqualTo(3);
+        assertThat(batchThreads).hasSize(2);
+        assertThat(batchThreads.get(1).isVirtual()).isTrue();
+        assertThat(batchThreads.get(1).getName()).isEqualTo("batching-executor-flush");
+        assertThat(batchingExecutor.getPendingCount()).isZero();
+    }
+
+    @Test
+    public void testDiscardingExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                new ThreadPoolExecutor.DiscardPolicy());
+        // The futures of the discarded batches would never be completed
+        assertThatThrownBy(() -> new BatchingExecutor<Integer, Integer>(keys -> Collections.emptyMap(), executor))
+                .isInstanceOf(IllegalArgumentException.class);
+        executor.shutdown();
+    }
+
+    @Test
+    @Tag("benchmark")
+    public void testCompareWithOneByOne() throws Exception {
+        // The downstream system spends 2ms on each call regardless of the row count, and accepts 4 concurrent calls
+        Function<List<Integer>, Map<Integer, Integer>> downstream = keys -> {
+            try {
+                Thread.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return keys.stream().collect(Collectors.toMap(Function.identity(), Function.identity()));
+        };
+        int callers = 32;
+        int calls = 50;
+
+        NetworkThreadPoolExecutor executor = new NetworkThreadPoolExecutor(4, 4, callers);
+        double oneByOneThroughput = runCalls("One by one", callers, calls,
+                key -> executor.submit(() -> downstream.apply(List.of(key)).get(key)).get());
+
+        BatchingExecutor<Integer, Integer> batchingExecutor = new BatchingExecutor<>(downstream, executor);
+        double batchingThroughput = runCalls("Batching", callers, calls, key -> batchingExecutor.submit(key).get());
+        executor.shutdown();
+        assertThat(batchingThroughput).isGreaterThan(oneByOneThroughput);
+    }
+
+    private double runCalls(String name, int callers, int calls, Call call) throws InterruptedException {
+        long[] latencyNanos = new long[callers * calls];
+        CountDownLatch completed = new CountDownLatch(callers);
+        long start = System.nanoTime();
+        for (int i = 0; i < callers; i++) {
+            int caller = i;
+            new Thread(() -> {
+                for (int j = 0; j < calls; j++) {
+                    int key = caller * calls + j;
+                    long callStart = System.nanoTime();
+                    try {
+                        assertThat(call.call(key)).isEqualTo(key);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                    latencyNanos[key] = System.nanoTime() - callStart;
+                }
+                completed.countDown();
+            }).start();
+        }
+        assertThat(completed.await(60, TimeUnit.SECONDS)).isTrue();
+        long elapsed = System.nanoTime() - start;
+        Arrays.sort(latencyNanos);
+        double throughput = latencyNanos.length * 1_000_000_000D / elapsed;
+        log.info("{}: {} calls/s, p50 latency {}ms, p99 latency {}ms", name, (long) throughput,
+                latencyNanos[latencyNanos.length / 2] / 1_000_000D, latencyNanos[latencyNanos.length * 99 / 100] / 1_000_000D);
+        return throughput;
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        Integer call(int key) throws Exception;
+    }
+}
@@ -0,0 +1,71 @@
+package com.luixtech.utilities.thread;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RateLimiterTests {
+
+    @Test
+    public void testBurst() {
+        RateLimiter rateLimiter = new RateLimiter(1, 3);
+        assertThat(rateLimiter.tryAcquire(3)).isTrue();
+        assertThat(rateLimiter.tryAcquire()).isFalse();
+        assertThat(new RateLimiter(-1).tryAcquire(Integer.MAX_VALUE)).isTrue();
+    }
+
+    @Test
+    public void testKeyedRateLimiter() throws InterruptedException {
+        KeyedRateLimiter<String> rateLimiter = new KeyedRateLimiter<>(10, 2, 1024, null);
+        assertThat(rateLimiter.tryAcquire("user1")).isTrue();
+        assertThat(rateLimiter.tryAcquire("user1")).isTrue();
+        assertThat(rateLimiter.tryAcquire("user1")).isFalse();
+        assertThat(rateLimiter.tryAcquire("user2")).isTrue();
+        // The number of the keys is bounded
+        for (int i = 0; i < 10_000; i++) {
+            rateLimiter.tryAcquire("key" + i);
+        }
+        assertThat(rateLimiter.size()).isLessThanOrEqualTo(1024);
+        // All the keys are idle after 200ms
+        Thread.sleep(300);
+        rateLimiter.evictIdleKeys();
+        assertThat(rateLimiter.size()).isZero();
+
+        KeyedRateLimiter<String> tenantRateLimiter = KeyedRateLimiter.perTenant(1, 1, 1024);
+        RequestContext.of("tenant1", null, null).run(() -> {
+            assertThat(tenantRateLimiter.tryAcquire()).isTrue();
+            assertThat(tenantRateLimiter.tryAcquire()).isFalse();
+        });
+        RequestContext.of("tenant2", null, null).run(() -> assertThat(tenantRateLimiter.tryAcquire()).isTrue());
+    }
+
+    @Test
+    public void testConcurrentAcquire() throws InterruptedException {
+        RateLimiter rateLimiter = new RateLimiter(1000, 10);
+        LongAdder acquired = new LongAdder();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.MILLISECONDS.toNanos(500);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            threads.add(Thread.ofPlatform().start(() -> {
+                while (System.nanoTime() < end) {
+                    if (rateLimiter.tryAcquire()) {
+                        acquired.increment();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // Never more than the 10 burst permits and 1 permit per millisecond, the threads may be descheduled in
+        // the meantime on a loaded machine, so the lower bound is loose
+        assertThat(acquired.sum()).isBetween(250L, 10 + elapsedMillis + 1);
+    }
+}
@@ -0,0 +1,162 @@
+package com.luixtech.utilities.thread;
+
+import com.luixtech.utilities.masking.DataMaskingThreadContextHolder;
+import com.sun.management.ThreadMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+public class RequestContextTests {
+
+    @Test
+    public void testBindAndPropagate() throws Exception {
+        assertThat(RequestContext.current()).isNull();
+        RequestContext context = RequestContext.of("tenant1", false, "T1");
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            String tenant = context.call(() -> {
+                assertThat(DataMaskingThreadContextHolder.getMaskEnabled()).isFalse();
+                // Propagate the context to another thread
+                return executor.submit(RequestContext.current().wrap(TenantThreadContextHolder::getTenant)).get();
+            });
+            assertThat(tenant).isEqualTo("tenant1");
+            // Nothing is left in the worker thread
+            assertThat(executor.submit(RequestContext::current).get()).isNull();
+        }
+        // Fall back to the thread local values
+        assertThat(TenantThreadContextHolder.getTenant()).isEmpty();
+        assertThat(DataMaskingThreadContextHolder.getMaskEnabled()).isTrue();
+    }
+
+    @Test
+    public void testNestedScope() {
+        RequestContext outer = RequestContext.of("tenant1", null, "T1");
+        outer.run(() -> {
+            RequestContext inner = RequestContext.current().withTenant("tenant2").withMaskEnabled(false);
+            inner.run(() -> {
+                assertThat(TenantThreadContextHolder.getTenant()).isEqualTo("tenant2");
+                assertThat(DataMaskingThreadContextHolder.getMaskEnabled()).isFalse();
+                assertThat(RequestContext.current().getTraceId()).isEqualTo("T1");
+            });
+            // The outer context is immutable and restored after the nested scope
+            assertThat(RequestContext.current()).isSameAs(outer);
+            assertThat(TenantThreadContextHolder.getTenant()).isEqualTo("tenant1");
+            assertThat(DataMaskingThreadContextHolder.getMaskEnabled()).isTrue();
+        });
+        assertThat(RequestContext.current()).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testThreadLocalFallback() throws Exception {
+        TenantThreadContextHolder.setTenant("local");
+        try {
+            // The context without tenant does NOT override the thread local value
+            assertThat(RequestContext.of(null, null, "T1").call(TenantThreadContextHolder::getTenant)).isEqualTo("local");
+            assertThat(RequestContext.of("tenant1", null, null).call(TenantThreadContextHolder::getTenant)).isEqualTo("tenant1");
+
+            // The thread local value is NOT inherited by the child threads
+            String[] childTenant = new String[1];
+            Thread child = Thread.ofPlatform().start(() -> childTenant[0] = TenantThreadContextHolder.getTenant());
+            child.join();
+            assertThat(childTenant[0]).isEmpty();
+        } finally {
+            TenantThreadContextHolder.destroy();
+        }
+    }
+
+    @Test
+    public void testDeadline() throws Exception {
+        RequestContext context = RequestContext.of("tenant1", null, "T1").withTimeout(1, TimeUnit.SECONDS);
+        assertThat(context.getDeadlineNanos() - System.nanoTime()).isPositive()
+                .isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+        // The withers keep the other fields
+        assertThat(context.withTraceId("T2").getDeadlineNanos()).isEqualTo(context.getDeadlineNanos());
+        assertThat(context.withTraceId("T2").getTenant()).isEqualTo("tenant1");
+    }
+
+    @Test
+    public void testWrapException() {
+        RequestContext context = RequestContext.of("tenant1", null, "T1");
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            assertThatThrownBy(() -> executor.submit(context.wrap(() -> {
+                throw new IOException("Failed");
+            })).get()).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(IOException.class);
+            assertThatThrownBy(() -> context.call(() -> {
+                throw new IOException("Failed");
+            })).isInstanceOf(IOException.class);
+        }
+    }
+
+    /**
+     * Compare the lookup and the propagation of the scoped value with the inheritable thread locals it replaces
+     */
+    @Test
+    @Tag("benchmark")
+    public void testLookupAndPropagation() throws Exception {
+        InheritableThreadLocal<String> tenantHolder = new InheritableThreadLocal<>();
+        InheritableThreadLocal<Boolean> maskHolder = new InheritableThreadLocal<>();
+        RequestContext context = RequestContext.of("tenant1", false, "T1");
+        int lookups = 10_000_000;
+        int threads = 10_000;
+        for (int round = 0; round < 3; round++) {
+            // Lookup
+            long start = System.nanoTime();
+            long hits = 0;
+            tenantHolder.set("tenant1");
+            for (int i = 0; i < lookups; i++) {
+                hits += tenantHolder.get().length();
+            }
+            long threadLocalNanos = System.nanoTime() - start;
+            tenantHolder.remove();
+            long scopedValueNanos = context.call(() -> {
+                long begin = System.nanoTime();
+                long count = 0;
+                for (int i = 0; i < lookups; i++) {
+                    count += TenantThreadContextHolder.getTenant().length();
+                }
+                assertThat(count).isEqualTo((long) lookups * 7);
+                return System.nanoTime() - begin;
+            });
+            assertThat(hits).isEqualTo((long) lookups * 7);
+
+            // Propagation to the new threads
+            tenantHolder.set("tenant1");
+            maskHolder.set(false);
+            long[] inherited = startThreads(threads, tenantHolder::get);
+            tenantHolder.remove();
+            maskHolder.remove();
+            long[] bound = context.call(() -> {
+                RequestContext current = RequestContext.current();
+                return startThreads(threads, current.wrap((Runnable) TenantThreadContextHolder::getTenant));
+            });
+            log.info("Lookup: thread local {}ns/op, scoped value {}ns/op; thread start: inherited {}ns and {} bytes, " +
+                            "wrapped {}ns and {} bytes", String.format("%.2f", threadLocalNanos / (double) lookups),
+                    String.format("%.2f", scopedValueNanos / (double) lookups), inherited[0] / threads,
+                    inherited[1] / threads, bound[0] / threads, bound[1] / threads);
+        }
+    }
+
+    /**
+     * Start the threads running the task and return the elapsed nanoseconds and the bytes allocated by the current thread
+     */
+    private static long[] startThreads(int threads, Runnable task) throws InterruptedException {
+        ThreadMXBean threadMXBean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long bytes = threadMXBean.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            Thread.ofPlatform().start(task).join();
+        }
+        return new long[]{System.nanoTime() - start, threadMXBean.getCurrentThreadAllocatedBytes() - bytes};
+    }
+}
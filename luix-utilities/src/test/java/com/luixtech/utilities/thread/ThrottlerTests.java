@@ -0,0 +1,59 @@
+package com.luixtech.utilities.thread;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+public class ThrottlerTests {
+
+    /**
+     * Measure the rate error and the jitter of the high precision mode
+     */
+    @ParameterizedTest
+    @ValueSource(longs = {1_000, 100_000, 1_000_000})
+    public void testHighPrecisionRate(long rate) throws InterruptedException {
+        Throttler throttler = new Throttler(rate, 1, true, 0);
+        // Run for 300ms
+        long records = rate * 3 / 10;
+        for (long i = 0; i < records; i++) {
+            throttler.throttle();
+        }
+        double error = (throttler.getAchievedRate() - rate) / rate;
+        long[] histogram = throttler.getWaitHistogram();
+        log.info("Rate: {}, achieved rate: {}, error: {}%, waits: {}, average wait: {}ns, max wait: {}ns, p99 wait: < {}ns",
+                rate, (long) throttler.getAchievedRate(), String.format("%.2f", error * 100), throttler.getWaits(),
+                throttler.getWaits() > 0 ? throttler.getTotalWaitNanos() / throttler.getWaits() : 0,
+                throttler.getMaxWaitNanos(), percentileUpperBound(histogram, throttler.getWaits(), 0.99));
+        // The records never run ahead of the schedule, but a loaded machine may delay the wake-ups, so only the
+        // upper bound is tight, the precision itself is reported by the log above
+        assertThat(error).isBetween(-0.5, 0.05);
+    }
+
+    @Test
+    public void testBurst() throws InterruptedException {
+        Throttler throttler = new Throttler(100, 1, true, 50);
+        Thread.sleep(600);
+        long start = System.nanoTime();
+        // The burst records are executed without waiting to catch up with the schedule
+        for (int i = 0; i < 50; i++) {
+            throttler.throttle();
+        }
+        // Far less than the 500ms taken by 50 records at 100 records/s without the burst
+        assertThat(System.nanoTime() - start).isLessThan(300_000_000L);
+    }
+
+    private static long percentileUpperBound(long[] histogram, long total, double percentile) {
+        long count = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            count += histogram[i];
+            if (count >= total * percentile) {
+                return 1L << (i + 1);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
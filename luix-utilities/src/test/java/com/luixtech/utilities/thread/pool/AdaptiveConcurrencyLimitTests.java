@@ -0,0 +1,77 @@
+package com.luixtech.utilities.thread.pool;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+public class AdaptiveConcurrencyLimitTests {
+
+    @Test
+    public void testLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(20, 5, 200);
+        for (int i = 0; i < 1000; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(10), limit.getLimit());
+        }
+        int fastLimit = limit.getLimit();
+        assertThat(fastLimit).isGreaterThan(20);
+
+        // The latency rises 10 times
+        for (int i = 0; i < 1000; i++) {
+            limit.onSample(TimeUnit.MILLISECONDS.toNanos(100), limit.getLimit());
+        }
+        assertThat(limit.getLimit()).isLessThan(fastLimit / 2);
+
+        // The limit is NOT increased if it is not used
+        AdaptiveConcurrencyLimit unusedLimit = new AdaptiveConcurrencyLimit(20, 5, 200);
+        for (int i = 0; i < 1000; i++) {
+            unusedLimit.onSample(TimeUnit.MILLISECONDS.toNanos(10), 1);
+        }
+        assertThat(unusedLimit.getLimit()).isEqualTo(20);
+    }
+
+    @Test
+    public void testSlowDependency() throws InterruptedException {
+        // The dependency serves 10 calls concurrently, the other calls wait for it
+        Semaphore dependency = new Semaphore(10);
+        NetworkThreadPoolExecutor executor = new NetworkThreadPoolExecutor(4, 200, 60, TimeUnit.SECONDS, 200,
+                Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy(), new AdaptiveConcurrencyLimit(20, 4, 200));
+        LongAdder completed = new LongAdder();
+        LongAdder latencyNanos = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (System.nanoTime() < end) {
+            long submitted = System.nanoTime();
+            try {
+                executor.execute(() -> {
+                    try {
+                        dependency.acquire();
+                        try {
+                            Thread.sleep(2);
+                        } finally {
+                            dependency.release();
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    completed.increment();
+                    latencyNanos.add(System.nanoTime() - submitted);
+                });
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+            }
+            LockSupport.parkNanos(50_000);
+        }
+        executor.shutdownNow();
+        log.info("Maximum pool size: {}, completed: {}, rejected: {}, mean latency: {}ms", executor.getMaximumPoolSize(),
+                completed.sum(), rejected.sum(), latencyNanos.sum() / Math.max(completed.sum(), 1) / 1_000_000);
+        assertThat(executor.getMaximumPoolSize()).isLessThan(200);
+        assertThat(executor.getEffectiveMaxSubmittedTasksCount()).isLessThan(executor.getMaxSubmittedTasksCount());
+        assertThat(rejected.sum()).isPositive();
+    }
+}
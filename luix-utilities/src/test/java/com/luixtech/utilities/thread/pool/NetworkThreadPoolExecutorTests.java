@@ -0,0 +1,217 @@
+package com.luixtech.utilities.thread.pool;
+
+import com.luixtech.utilities.exception.InvocationTimeoutException;
+import com.luixtech.utilities.thread.RequestContext;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+public class NetworkThreadPoolExecutorTests {
+
+    @Test
+    public void testTaskTimeRecorder() throws InterruptedException {
+        NetworkThreadPoolExecutor executor = new NetworkThreadPoolExecutor(1, 1, 1);
+        LongAdder recorded = new LongAdder();
+        LongAdder executionNanos = new LongAdder();
+        executor.setTaskTimeRecorder((queueWait, execution) -> {
+            recorded.increment();
+            executionNanos.add(execution);
+        });
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+        // The second task is queued and the third one is rejected
+        executor.execute(() -> {
+        });
+        assertThatThrownBy(() -> executor.execute(() -> {
+        })).isInstanceOf(RejectedExecutionException.class);
+        assertThat(executor.getRejectedTasksCount()).isEqualTo(1);
+
+        Thread.sleep(10);
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(recorded.sum()).isEqualTo(2);
+        assertThat(executionNanos.sum()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    public void testShardedQueue() throws InterruptedException {
+        NetworkThreadPoolExecutor executor = new NetworkThreadPoolExecutor(2, 4, 60, TimeUnit.SECONDS, 100,
+                Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy(), null, NetworkThreadPoolExecutor.QueueType.SHARDED);
+        // The idle threads are woken up by the sparse tasks
+        for (int i = 0; i < 1000; i++) {
+            CountDownLatch completed = new CountDownLatch(1);
+            executor.execute(completed::countDown);
+            assertThat(completed.await(1, TimeUnit.SECONDS)).isTrue();
+        }
+        // Grow the threads to the maximum before queueing
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        // Wait for the idle threads to take the tasks
+        Thread.sleep(100);
+        assertThat(executor.getPoolSize()).isEqualTo(4);
+        // The threads are counted before they start, so the submitting thread queues the tasks once the threads
+        // reach the maximum instead of failing to add more threads
+        assertThat(executor.getForcedTasksCount()).isZero();
+        assertThat(executor.getQueue()).hasSize(6);
+        assertThat(executor.shutdownNow()).hasSize(6);
+        assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {8, 32, 128})
+    @Tag("benchmark")
+    public void testSubmitThroughput(int producers) throws InterruptedException {
+        for (NetworkThreadPoolExecutor.QueueType queueType : new NetworkThreadPoolExecutor.QueueType[]{
+                NetworkThreadPoolExecutor.QueueType.SINGLE, NetworkThreadPoolExecutor.QueueType.SHARDED}) {
+            NetworkThreadPoolExecutor executor = new NetworkThreadPoolExecutor(20, 200, 60, TimeUnit.SECONDS, 1_000_000,
+                    Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy(), null, queueType);
+            int tasksPerProducer = 10_000;
+            CountDownLatch completed = new CountDownLatch(producers * tasksPerProducer);
+            long start = System.nanoTime();
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < producers; i++) {
+                threads.add(Thread.ofPlatform().start(() -> {
+                    for (int j = 0; j < tasksPerProducer; j++) {
+                        executor.execute(completed::countDown);
+                    }
+                }));
+            }
+            assertThat(completed.await(60, TimeUnit.SECONDS)).isTrue();
+            long elapsed = System.nanoTime() - start;
+            log.info("{} producers, {} queue: {} tasks/s", producers, queueType,
+                    (long) (producers * tasksPerProducer * 1_000_000_000D / elapsed));
+            executor.shutdown();
+            assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+        }
+    }
+
+    @Test
+    public void testDeadline() throws InterruptedException {
+        NetworkThreadPoolExecutor executor = new NetworkThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, 100,
+                Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy(), null,
+                NetworkThreadPoolExecutor.QueueType.EARLIEST_DEADLINE_FIRST);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+        executor.execute(() -> executed.add(0));
+        executor.execute(DeadlineRunnable.of(() -> executed.add(2), 10, TimeUnit.SECONDS));
+        executor.execute(DeadlineRunnable.of(() -> executed.add(1), 5, TimeUnit.SECONDS));
+        Future<?> expired = executor.submit(DeadlineRunnable.of(() -> executed.add(-1), 10, TimeUnit.MILLISECONDS));
+
+        Thread.sleep(50);
+        release.countDown();
+        assertThatThrownBy(expired::get).hasCauseInstanceOf(InvocationTimeoutException.class);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+        // Earliest deadline first, the task without deadline is the last
+        assertThat(executed).containsExactly(1, 2, 0);
+        assertThat(executor.getShedTasksCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testSilentlyShedTasks() throws Exception {
+        NetworkThreadPoolExecutor executor = new NetworkThreadPoolExecutor(1, 1, 100);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        LongAdder executed = new LongAdder();
+        Future<?> expired = RequestContext.of(null, null, null).withTimeout(10, TimeUnit.MILLISECONDS).call(() -> {
+            // The deadline of the request context applies to both the plain runnable and the future
+            executor.execute(executed::increment);
+            return executor.submit(executed::increment);
+        });
+
+        Thread.sleep(50);
+        release.countDown();
+        assertThatThrownBy(expired::get).hasCauseInstanceOf(InvocationTimeoutException.class);
+        executor.shutdown();
+        assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(executed.sum()).isZero();
+        assertThat(executor.getShedTasksCount()).isEqualTo(2);
+        // Nobody is notified of the plain runnable
+        assertThat(executor.getSilentlyShedTasksCount()).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @EnumSource(NetworkThreadPoolExecutor.QueueType.class)
+    public void testRemoveQueuedTasks(NetworkThreadPoolExecutor.QueueType queueType) throws InterruptedException {
+        NetworkThreadPoolExecutor executor = new NetworkThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, 100,
+                Executors.defaultThreadFactory(), new ThreadPoolExecutor.AbortPolicy(), null, queueType);
+        // The queued tasks are wrapped to record the time
+        executor.setTaskTimeRecorder((queueWait, execution) -> {
+        });
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+        Runnable removed = () -> {
+        };
+        Runnable pending = () -> {
+        };
+        executor.execute(removed);
+        Future<?> cancelled = executor.submit(() -> {
+        });
+        executor.execute(pending);
+        assertThat(executor.getSubmittedTasksCount()).isEqualTo(4);
+
+        // The submitted tasks are matched instead of the wrappers
+        assertThat(executor.remove(removed)).isTrue();
+        assertThat(executor.remove(removed)).isFalse();
+        assertThat(cancelled.cancel(false)).isTrue();
+        executor.purge();
+        assertThat(executor.getQueue()).hasSize(1);
+        assertThat(executor.getSubmittedTasksCount()).isEqualTo(2);
+
+        assertThat(executor.shutdownNow()).containsExactly(pending);
+        assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.getSubmittedTasksCount()).isZero();
+    }
+}
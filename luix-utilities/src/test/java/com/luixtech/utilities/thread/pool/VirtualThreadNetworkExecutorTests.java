@@ -0,0 +1,96 @@
+package com.luixtech.utilities.thread.pool;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@Slf4j
+public class VirtualThreadNetworkExecutorTests {
+
+    @Test
+    public void testReject() throws InterruptedException {
+        VirtualThreadNetworkExecutor executor = new VirtualThreadNetworkExecutor(2);
+        CountDownLatch interrupted = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            });
+        }
+        assertThatThrownBy(() -> executor.execute(() -> {
+        })).isInstanceOf(RejectedExecutionException.class);
+        assertThat(executor.getRejectedTasksCount()).isEqualTo(1);
+        assertThat(executor.getSubmittedTasksCount()).isEqualTo(2);
+
+        executor.shutdownNow();
+        assertThat(interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+        assertThatThrownBy(() -> executor.execute(() -> {
+        })).isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    public void testShutdownNowWhileStarting() throws InterruptedException {
+        VirtualThreadNetworkExecutor executor = new VirtualThreadNetworkExecutor(1000);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        // The threads which have NOT started yet are interrupted as well
+        executor.shutdownNow();
+        assertThat(executor.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    /**
+     * Benchmark depending on the CPU cores and the timer resolution, which is excluded from the regular build
+     */
+    @Test
+    @Tag("benchmark")
+    public void testCompareWithNetworkThreadPoolExecutor() throws InterruptedException {
+        // I/O bound tasks waiting 10ms
+        int tasks = 10_000;
+        long networkThroughput = runIoBoundTasks("NetworkThreadPoolExecutor", new NetworkThreadPoolExecutor(20, 200, tasks), tasks);
+        long virtualThroughput = runIoBoundTasks("VirtualThreadNetworkExecutor", new VirtualThreadNetworkExecutor(tasks), tasks);
+        // The concurrency of the virtual threads is NOT capped by the pool size, but the mean latency measured from
+        // the submission also depends on how fast the submitting thread gets the CPU, which is NOT compared
+        assertThat(virtualThroughput).isGreaterThan(networkThroughput);
+    }
+
+    private long runIoBoundTasks(String name, ExecutorService executor, int tasks) throws InterruptedException {
+        LongAdder latencyNanos = new LongAdder();
+        CountDownLatch completed = new CountDownLatch(tasks);
+        long start = System.nanoTime();
+        for (int i = 0; i < tasks; i++) {
+            long submitted = System.nanoTime();
+            executor.execute(() -> {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                latencyNanos.add(System.nanoTime() - submitted);
+                completed.countDown();
+            });
+        }
+        assertThat(completed.await(30, TimeUnit.SECONDS)).isTrue();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        long throughput = (long) (tasks * 1_000_000_000D / elapsed);
+        log.info("{}: {} tasks/s, mean latency {}ms", name, throughput, latencyNanos.sum() / 1_000_000D / tasks);
+        return throughput;
+    }
+}